@@ -0,0 +1,51 @@
+package automation.ctflearn.dataObject.mobile;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * One row of the Trade screen instrument list
+ */
+public class Instrument {
+    private final String name;
+    private final String price;
+    private final String percent;
+
+    public Instrument(String name, String price, String percent) {
+        this.name = name;
+        this.price = price;
+        this.percent = percent;
+    }
+
+    /**
+     * Key identifying the instrument across scroll pages
+     */
+    public String getKey() {
+        return name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getPrice() {
+        return price;
+    }
+
+    public String getPercent() {
+        return percent;
+    }
+
+    public Map<String, String> toMap() {
+        Map<String, String> map = new LinkedHashMap<>();
+        map.put("name", name);
+        map.put("price", price);
+        map.put("percent", percent);
+        return map;
+    }
+
+    @Override
+    public String toString() {
+        return name + " " + price + " (" + percent + ")";
+    }
+}
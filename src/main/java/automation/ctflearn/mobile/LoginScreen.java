@@ -3,6 +3,7 @@ package automation.ctflearn.mobile;
 import automation.utils.AssertHelper;
 import automation.utils.Element;
 import automation.utils.mobile.BaseMobilePage;
+import automation.utils.mobile.Keypad;
 import automation.utils.WaitUtil;
 import io.appium.java_client.AppiumDriver;
 import io.appium.java_client.pagefactory.AndroidFindBy;
@@ -16,10 +17,10 @@ public class LoginScreen extends BaseMobilePage {
     @AndroidFindBy(id = "com.exness.android.pa:id/signInView")
     private WebElement signInButton;
 
-    @AndroidFindBy(xpath = "(//*[@resource-id='com.exness.android.pa:id/editText'])[1]")
+    @AndroidFindBy(uiAutomator = "new UiSelector().resourceId(\"com.exness.android.pa:id/editText\").instance(0)")
     private WebElement emailInput;
 
-    @AndroidFindBy(xpath = "(//*[@resource-id='com.exness.android.pa:id/editText'])[2]")
+    @AndroidFindBy(uiAutomator = "new UiSelector().resourceId(\"com.exness.android.pa:id/editText\").instance(1)")
     private WebElement passwordInput;
 
     @AndroidFindBy(id = "com.exness.android.pa:id/signInButton")
@@ -28,21 +29,21 @@ public class LoginScreen extends BaseMobilePage {
     @AndroidFindBy(id = "com.exness.android.pa:id/passcode")
     private WebElement passcodeField;
 
-    @AndroidFindBy(xpath = "//*[@text='Not now']")
+    @AndroidFindBy(uiAutomator = "new UiSelector().text(\"Not now\")")
     private WebElement notNowButton;
 
     @AndroidFindBy(id = "com.exness.android.pa:id/bottom_navigation_item_icon")
     private WebElement accountsNavButton;
 
-    @AndroidFindBy(xpath = "//*[@resource-id='com.exness.android.pa:id/bottom_navigation_item_title' and @text='Trade']")
+    @AndroidFindBy(uiAutomator = "new UiSelector().resourceId(\"com.exness.android.pa:id/bottom_navigation_item_title\").text(\"Trade\")")
     private WebElement tradeNavButton;
 
-    @AndroidFindBy(xpath = "//*[@resource-id='com.exness.android.pa:id/bottom_navigation_item_title' and @text='Profile']")
+    @AndroidFindBy(uiAutomator = "new UiSelector().resourceId(\"com.exness.android.pa:id/bottom_navigation_item_title\").text(\"Profile\")")
     private WebElement profileNavButton;
 
     public LoginScreen(AppiumDriver driver) {
         super(driver);
-        AssertHelper.assertElementIsDisplayed("account" , accountsNavButton);
+        AssertHelper.assertScreenElementIsDisplayed("account", accountsNavButton);
     }
 
     public void clickSignIn() {
@@ -68,6 +69,14 @@ public class LoginScreen extends BaseMobilePage {
         LogUtil.info("Entering passcode");
         WaitUtil.waitForElementToBeVisible(driver, passcodeField, "Passcode field");
 
+        // Located on every screen, the confirmation screen may lay its keys out differently
+        Keypad keypad = Keypad.locate(driver, passcode);
+        if (keypad != null) {
+            keypad.enter(passcode);
+            return;
+        }
+
+        LogUtil.warn("Keypad not recognised, entering passcode digit by digit");
         for (char digit : passcode.toCharArray()) {
             WebElement button = Element.findElementByXPath(driver, String.format(digitButtonXpath, digit), "Passcode");
             tap(button, "Passcode digit " + digit);
@@ -81,7 +90,7 @@ public class LoginScreen extends BaseMobilePage {
 
     public void handleSecurityPopup() {
         LogUtil.info("Handling security popup: Clicking 'Not now'");
-        if (Element.isElementDisplayed(notNowButton)) {
+        if (WaitUtil.isOptionalElementDisplayed(notNowButton, "Not now button")) {
             tap(notNowButton, "Not now button");
         }
     }
@@ -0,0 +1,296 @@
+package automation.ctflearn.mobile;
+
+import automation.ctflearn.dataObject.mobile.Instrument;
+import automation.utils.ConfigLoader;
+import automation.utils.LogUtil;
+import automation.utils.PerfMetrics;
+import automation.utils.metrics.KeyMetrics;
+import automation.utils.mobile.UiHierarchy;
+import io.appium.java_client.AppiumDriver;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Polls the price of selected Trade screen instruments and measures how fresh the quotes are: the interval between
+ * price changes, how long a price stays unchanged (staleness) and the jitter of the update intervals. Each sample is
+ * one page source call, so change times are resolved to the sample period.
+ */
+public class PriceTickSampler {
+    private final AppiumDriver driver;
+    private final List<String> instruments;
+    private MetricsDestination metrics = (eventName, startEpoch, durationMillis, success, details) ->
+            KeyMetrics.record(eventName, null, startEpoch, durationMillis, success, null, details,
+                    KeyMetrics.PLATFORM_ANDROID, "");
+
+    PriceTickSampler(AppiumDriver driver, List<String> instruments) {
+        this.driver = driver;
+        this.instruments = instruments;
+    }
+
+    /**
+     * Send the key metrics events of this sampler somewhere other than {@link KeyMetrics}, e.g. to keep unit test
+     * runs out of the metrics history
+     */
+    PriceTickSampler emitTo(MetricsDestination destination) {
+        this.metrics = destination;
+        return this;
+    }
+
+    /**
+     * Sample at the configured rate (mobile.tick.sample.ms)
+     */
+    public Result sample(Duration duration) {
+        return sample(duration, Duration.ofMillis(ConfigLoader.getPropertyAsInt("mobile.tick.sample.ms", 250)));
+    }
+
+    /**
+     * Poll the instruments' prices for the given time
+     *
+     * @param duration Sampling window
+     * @param period   Time between the starts of two samples
+     * @return Update statistics per instrument, also emitted as metrics
+     */
+    public Result sample(Duration duration, Duration period) {
+        LogUtil.info("Sampling prices of " + instruments + " every " + period.toMillis() + " ms for " + duration.toSeconds() + " s");
+        Map<String, Track> tracks = new LinkedHashMap<>();
+        long startEpoch = System.currentTimeMillis();
+        long start = System.nanoTime();
+        for (String instrument : instruments) {
+            tracks.put(instrument, new Track());
+        }
+
+        int samples = 0;
+        long end = start + duration.toNanos();
+        while (System.nanoTime() < end) {
+            long sampleStart = System.nanoTime();
+            UiHierarchy screen = UiHierarchy.capture(driver);
+            long at = (System.nanoTime() - start) / 1_000_000;
+            samples++;
+            Map<String, String> prices = new LinkedHashMap<>();
+            for (UiHierarchy.Node row : screen.findAll("//*[@resource-id='" + TradeScreen.INSTRUMENT_ROW_ID + "']")) {
+                Instrument instrument = TradeScreen.parseInstrument(row);
+                if (instrument != null) {
+                    prices.putIfAbsent(instrument.getKey(), instrument.getPrice());
+                }
+            }
+            tracks.forEach((name, track) -> track.observe(at, prices.get(name)));
+            PerfMetrics.record("tick.sample.ms", PerfMetrics.elapsedMillis(sampleStart));
+
+            long sleepNanos = sampleStart + period.toNanos() - System.nanoTime();
+            if (sleepNanos > 0) {
+                try {
+                    Thread.sleep(sleepNanos / 1_000_000, (int) (sleepNanos % 1_000_000));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+
+        long windowMillis = (System.nanoTime() - start) / 1_000_000;
+        Map<String, Stats> stats = new LinkedHashMap<>();
+        tracks.forEach((name, track) -> stats.put(name, track.finish(name, windowMillis)));
+        Result result = new Result(samples, windowMillis, stats);
+        result.emit(startEpoch, metrics);
+        return result;
+    }
+
+    private static class Track {
+        private final List<Long> intervals = new ArrayList<>();
+        private final List<Long> staleness = new ArrayList<>();
+        private String lastPrice;
+        private long lastChange;
+        private boolean seen;
+        private int updates;
+
+        private void observe(long at, String price) {
+            if (price != null) {
+                if (seen && !price.equals(lastPrice)) {
+                    if (updates > 0) {
+                        intervals.add(at - lastChange);
+                    }
+                    updates++;
+                    lastChange = at;
+                }
+                seen = true;
+                lastPrice = price;
+            }
+            // Until the first change the price has been stale since sampling started
+            staleness.add(at - lastChange);
+        }
+
+        private Stats finish(String name, long windowMillis) {
+            staleness.add(windowMillis - lastChange);
+            return new Stats(name, seen, updates, intervals, staleness);
+        }
+    }
+
+    public static class Stats {
+        private final String instrument;
+        private final boolean seen;
+        private final int updates;
+        private final List<Long> intervals;
+        private final List<Long> staleness;
+
+        private Stats(String instrument, boolean seen, int updates, List<Long> intervals, List<Long> staleness) {
+            this.instrument = instrument;
+            this.seen = seen;
+            this.updates = updates;
+            this.intervals = new ArrayList<>(intervals);
+            this.staleness = new ArrayList<>(staleness);
+            Collections.sort(this.intervals);
+            Collections.sort(this.staleness);
+        }
+
+        public String getInstrument() {
+            return instrument;
+        }
+
+        /**
+         * false when the instrument was never on screen during sampling
+         */
+        public boolean isSeen() {
+            return seen;
+        }
+
+        public int getUpdates() {
+            return updates;
+        }
+
+        /**
+         * Interval between two consecutive price changes at the given percentile (0-100), -1 with fewer than two changes
+         */
+        public long getIntervalPercentile(double percentile) {
+            return percentile(intervals, percentile);
+        }
+
+        /**
+         * Time since the last price change, observed at every sample, at the given percentile (0-100)
+         */
+        public long getStalenessPercentile(double percentile) {
+            return percentile(staleness, percentile);
+        }
+
+        public long getMaxStaleness() {
+            return staleness.isEmpty() ? 0 : staleness.get(staleness.size() - 1);
+        }
+
+        /**
+         * Standard deviation of the update intervals in ms
+         */
+        public double getJitter() {
+            if (intervals.size() < 2) {
+                return 0;
+            }
+            double mean = intervals.stream().mapToLong(Long::longValue).average().orElse(0);
+            double variance = intervals.stream().mapToDouble(i -> (i - mean) * (i - mean)).sum() / (intervals.size() - 1);
+            return Math.sqrt(variance);
+        }
+
+        private static long percentile(List<Long> sorted, double percentile) {
+            if (sorted.isEmpty()) {
+                return -1;
+            }
+            int rank = (int) Math.ceil(percentile / 100 * sorted.size());
+            return sorted.get(Math.max(0, Math.min(sorted.size() - 1, rank - 1)));
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: %d update(s), interval p50=%d p90=%d ms, jitter=%.0f ms, staleness p50=%d p90=%d max=%d ms",
+                    instrument, updates, getIntervalPercentile(50), getIntervalPercentile(90), getJitter(),
+                    getStalenessPercentile(50), getStalenessPercentile(90), getMaxStaleness());
+        }
+    }
+
+    public static class Result {
+        private final int samples;
+        private final long windowMillis;
+        private final Map<String, Stats> stats;
+
+        private Result(int samples, long windowMillis, Map<String, Stats> stats) {
+            this.samples = samples;
+            this.windowMillis = windowMillis;
+            this.stats = stats;
+        }
+
+        public int getSamples() {
+            return samples;
+        }
+
+        public long getWindowMillis() {
+            return windowMillis;
+        }
+
+        public Stats get(String instrument) {
+            return stats.get(instrument);
+        }
+
+        /**
+         * Fail if any instrument kept the same price, or was off screen, for longer than the limit
+         */
+        public void assertMaxStaleness(long maxMillis) {
+            List<String> stale = new ArrayList<>();
+            stats.values().forEach(s -> {
+                if (!s.isSeen() || s.getMaxStaleness() > maxMillis) {
+                    stale.add(s.getInstrument() + (s.isSeen() ? " (" + s.getMaxStaleness() + " ms)" : " (never seen)"));
+                }
+            });
+            if (!stale.isEmpty()) {
+                String message = "Quotes stale for more than " + maxMillis + " ms: " + String.join(", ", stale);
+                LogUtil.error(message);
+                throw new AssertionError(message);
+            }
+            LogUtil.pass("No quote stale for more than " + maxMillis + " ms");
+        }
+
+        /**
+         * Fail if any instrument changed its price fewer times than expected
+         */
+        public void assertMinUpdates(int minUpdates) {
+            List<String> slow = new ArrayList<>();
+            stats.values().forEach(s -> {
+                if (s.getUpdates() < minUpdates) {
+                    slow.add(s.getInstrument() + " (" + s.getUpdates() + ")");
+                }
+            });
+            if (!slow.isEmpty()) {
+                String message = "Fewer than " + minUpdates + " price update(s) in " + windowMillis + " ms: " + String.join(", ", slow);
+                LogUtil.error(message);
+                throw new AssertionError(message);
+            }
+            LogUtil.pass("Every quote updated at least " + minUpdates + " time(s)");
+        }
+
+        private void emit(long startEpoch, MetricsDestination metrics) {
+            LogUtil.info("Price ticks from " + samples + " sample(s) over " + windowMillis + " ms");
+            for (Stats s : stats.values()) {
+                LogUtil.info("  " + s);
+                s.intervals.forEach(interval -> PerfMetrics.record("tick." + s.getInstrument() + ".interval.ms", interval));
+                PerfMetrics.record("tick." + s.getInstrument() + ".staleness.max.ms", s.getMaxStaleness());
+                Map<String, Object> details = new LinkedHashMap<>();
+                details.put("instrument", s.getInstrument());
+                details.put("samples", samples);
+                details.put("updates", s.getUpdates());
+                details.put("intervalP50", s.getIntervalPercentile(50));
+                details.put("intervalP90", s.getIntervalPercentile(90));
+                details.put("jitter", Math.round(s.getJitter()));
+                details.put("stalenessP90", s.getStalenessPercentile(90));
+                details.put("stalenessMax", s.getMaxStaleness());
+                metrics.record("mobile:price-ticks", startEpoch, windowMillis, s.isSeen(), details);
+            }
+        }
+    }
+
+    /**
+     * Receiver of one key metrics event per instrument
+     */
+    interface MetricsDestination {
+        void record(String eventName, long startEpoch, long durationMillis, boolean success, Map<String, Object> details);
+    }
+}
@@ -1,7 +1,6 @@
 package automation.ctflearn.mobile;
 
 import automation.utils.AssertHelper;
-import automation.utils.Element;
 import automation.utils.mobile.BaseMobilePage;
 import automation.utils.WaitUtil;
 import io.appium.java_client.AppiumDriver;
@@ -26,12 +25,11 @@ public class ProfileScreen extends BaseMobilePage {
 
     public ProfileScreen(AppiumDriver driver) {
         super(driver);
-        AssertHelper.assertElementIsDisplayed("profile", profileContent);
+        AssertHelper.assertScreenElementsAreDisplayed(readFields("profileContent"));
     }
 
     public void logout() {
         LogUtil.info("Scrolling to Logout button and logging out");
-        WaitUtil.waitForElementToBeVisible(driver, profileContent, "Profile content");
         scrollDownToFindElement(shareStrategiesButton, "shareStrategies button");
         scrollDownToFindElement(userVoiceButton, "userVoice button");
         scrollDownToFindElement(logoutButton, "Logout button");
@@ -44,7 +42,7 @@ public class ProfileScreen extends BaseMobilePage {
         int maxScrollAttempts = 10;
         try {
             for (int attempt = 0; attempt < maxScrollAttempts; attempt++) {
-                if (Element.isElementDisplayed(element)) {
+                if (WaitUtil.isOptionalElementDisplayed(element, description)) {
                     LogUtil.info("Logout button is now visible");
                     return;
                 }
@@ -1,13 +1,26 @@
 package automation.ctflearn.mobile;
 
+import automation.ctflearn.dataObject.mobile.Instrument;
 import automation.utils.*;
 import automation.utils.mobile.BaseMobilePage;
+import automation.utils.mobile.ScrollHarvester;
+import automation.utils.mobile.UiHierarchy;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.appium.java_client.AppiumDriver;
 import io.appium.java_client.pagefactory.AndroidFindBy;
 import org.openqa.selenium.WebElement;
 
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
 import java.util.List;
+import java.util.function.Consumer;
 public class TradeScreen extends BaseMobilePage {
+    static final String INSTRUMENT_ROW_ID = "com.exness.android.pa:id/instrumentView";
 
     @AndroidFindBy(id = "com.exness.android.pa:id/instrumentView")
     private WebElement instrumentView;
@@ -24,7 +37,7 @@ public class TradeScreen extends BaseMobilePage {
     @AndroidFindBy(id = "com.exness.android.pa:id/sparkLine")
     private WebElement sparkLineGraph;
 
-    @AndroidFindBy(xpath = "//*[@resource-id='com.exness.android.pa:id/instrumentView']")
+    @AndroidFindBy(id = "com.exness.android.pa:id/instrumentView")
     private List<WebElement> instrumentList;
 
     public TradeScreen(AppiumDriver driver) {
@@ -33,11 +46,65 @@ public class TradeScreen extends BaseMobilePage {
 
     public void verifyTradeScreenValueDisplayed() {
         LogUtil.info("Checking if Trade screen is properly displayed");
-        WaitUtil.waitForElementToBeVisible(driver, instrumentView, "Instrument view");
-        AssertHelper.assertElementIsDisplayed("instrumentView ", instrumentView);
-        AssertHelper.assertElementIsDisplayed("priceView ", priceView);
-        AssertHelper.assertElementIsDisplayed("nameView ", nameView);
-        AssertHelper.assertElementIsDisplayed("percentView ", percentView);
-        AssertHelper.assertElementIsDisplayed("instrumentView ", instrumentView);
+        AssertHelper.assertScreenElementsAreDisplayed(readFields("instrumentView", "priceView", "nameView", "percentView"));
+    }
+
+    /**
+     * Scroll through the whole instrument list and hand every instrument to the consumer once
+     *
+     * @param consumer Receives each instrument as soon as its row is read
+     * @return Number of distinct instruments
+     */
+    public int harvestInstruments(Consumer<Instrument> consumer) {
+        LogUtil.info("Harvesting the instrument list");
+        return ScrollHarvester.harvest(driver, INSTRUMENT_ROW_ID, TradeScreen::parseInstrument, Instrument::getKey, consumer);
+    }
+
+    /**
+     * Scroll through the whole instrument list and write one JSON line per instrument
+     *
+     * @param file Output file, e.g. logs/instruments.jsonl
+     * @return Number of distinct instruments
+     */
+    public int harvestInstruments(File file) {
+        ObjectMapper mapper = new ObjectMapper();
+        if (file.getParentFile() != null) {
+            file.getParentFile().mkdirs();
+        }
+        try (BufferedWriter writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            return harvestInstruments(instrument -> {
+                try {
+                    writer.write(mapper.writeValueAsString(instrument.toMap()));
+                    writer.newLine();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (IOException | UncheckedIOException e) {
+            LogUtil.error("Failed to write instruments to " + file + ": " + e.getMessage());
+            throw new RuntimeException("Failed to write instruments to " + file, e);
+        }
+    }
+
+    /**
+     * Sampler measuring how often the prices of the given instruments update
+     *
+     * @param instruments Instrument names as shown in the list, e.g. "EUR/USD"
+     */
+    public PriceTickSampler priceTickSampler(String... instruments) {
+        return new PriceTickSampler(driver, Arrays.asList(instruments));
+    }
+
+    static Instrument parseInstrument(UiHierarchy.Node row) {
+        String name = childText(row, "nameView");
+        if (name.isEmpty()) {
+            return null;
+        }
+        return new Instrument(name, childText(row, "priceView"), childText(row, "percentView"));
+    }
+
+    private static String childText(UiHierarchy.Node row, String id) {
+        List<UiHierarchy.Node> nodes = row.findAll(".//*[@resource-id='com.exness.android.pa:id/" + id + "']");
+        return nodes.isEmpty() ? "" : nodes.get(0).text();
     }
-}
\ No newline at end of file
+}
@@ -2,10 +2,13 @@ package automation.ctflearn.web;
 
 import automation.utils.*;
 import automation.utils.web.BaseWebPage;
+import automation.utils.web.DomReader;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.FindBy;
 
+import java.util.Map;
+
 public class ChallengeHomePage extends BaseWebPage {
     @FindBy(xpath = "//h1[contains(text(), 'Challenges')]")
     private WebElement challengeTitleLabel;
@@ -25,18 +28,19 @@ public class ChallengeHomePage extends BaseWebPage {
     public ChallengeHomePage(WebDriver driver) {
         super(driver);
         waitForPageToLoad();
-        AssertHelper.assertElementIsDisplayed("challengeDescriptionLabel", challengeDescriptionLabel);
-        AssertHelper.assertElementIsDisplayed("challengePointLabel", challengePointLabel);
-        AssertHelper.assertElementIsDisplayed("challengeCategoryLabel", challengeCategoryLabel);
+        AssertHelper.assertElementsAreDisplayed(
+                readFields("challengeDescriptionLabel", "challengePointLabel", "challengeCategoryLabel"));
         LogUtil.info("Challenge page loaded successfully");
     }
 
     public void verifyChallengeDetails(String expectedTitle, String expectedDescription,
                                        String expectedCategory, String expectedPoints, String fileName) {
-        AssertHelper.compareEquals("Challenge Title", expectedTitle, Element.getText(challengeTitleLabel, "Challenge Title Label"));
-        AssertHelper.compareEquals("Challenge Description", expectedDescription, Element.getText(challengeDescriptionLabel, "Challenge Description Label"));
-        AssertHelper.compareEquals("Challenge Points", expectedPoints, Element.getText(challengePointLabel, "Challenge Points Label"));
-        AssertHelper.compareEquals("Challenge Category", expectedCategory, Element.getText(challengeCategoryLabel, "Challenge Category Label"));
-        AssertHelper.compareEquals("Challenge File Name", expectedCategory, Element.getText(challengeFileName, "Challenge FileName Label"));
+        Map<String, DomReader.ElementState> labels = readFields("challengeTitleLabel", "challengeDescriptionLabel",
+                "challengePointLabel", "challengeCategoryLabel", "challengeFileName");
+        AssertHelper.compareEquals("Challenge Title", expectedTitle, labels.get("challengeTitleLabel").getText());
+        AssertHelper.compareEquals("Challenge Description", expectedDescription, labels.get("challengeDescriptionLabel").getText());
+        AssertHelper.compareEquals("Challenge Points", expectedPoints, labels.get("challengePointLabel").getText());
+        AssertHelper.compareEquals("Challenge Category", expectedCategory, labels.get("challengeCategoryLabel").getText());
+        AssertHelper.compareEquals("Challenge File Name", expectedCategory, labels.get("challengeFileName").getText());
     }
 }
\ No newline at end of file
@@ -34,29 +34,25 @@ public class ChallengesPage extends BaseWebPage {
     public ChallengesPage(WebDriver driver) {
         super(driver);
         waitForPageToLoad();
-        AssertHelper.assertElementIsDisplayed("searchByID", searchByID);
-        AssertHelper.assertElementIsDisplayed("searchByCategory", searchByCategory);
-        AssertHelper.assertElementIsDisplayed("searchByDifficulty", searchByDifficulty);
-        AssertHelper.assertElementIsDisplayed("searchBySolved", searchBySolved);
-        AssertHelper.assertElementIsDisplayed("searchByOrder", searchByOrder);
+        AssertHelper.assertElementsAreDisplayed(readFields("searchByID", "searchByCategory", "searchByDifficulty",
+                "searchBySolved", "searchByOrder"));
         LogUtil.info("Challenges page loaded successfully");
     }
 
     public CreateChallengePage clickCreateChallenge() {
         LogUtil.info("Clicking Create Challenge link");
         try {
-            if (Element.isElementDisplayed(createChallengeLink)) {
-                Element.click(driver, createChallengeLink, "Create Challenge link");
+            if (WaitUtil.isOptionalElementDisplayed(createChallengeLink, "Create Challenge link")) {
+                clickAndWaitForNavigation(createChallengeLink, "Create Challenge link");
             } else {
-                if (Element.isElementDisplayed(createChallengeMenuItem)) {
-                    Element.click(driver,
-                            createChallengeMenuItem, "Create Challenge menu item");
+                if (WaitUtil.isOptionalElementDisplayed(createChallengeMenuItem, "Create Challenge menu item")) {
+                    clickAndWaitForNavigation(createChallengeMenuItem, "Create Challenge menu item");
                 } else {
                     LogUtil.info("Menu item not found, trying to navigate directly");
                     driver.get(ConfigLoader.getProperty("web.url") + "/challenge/create");
+                    waitForPageToLoad();
                 }
             }
-            waitForPageToLoad();
             return new CreateChallengePage(driver);
         } catch (Exception e) {
             LogUtil.error("Failed to click Create Challenge link: " + e.getMessage());
@@ -6,6 +6,9 @@ import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.FindBy;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 public class CreateChallengePage extends BaseWebPage {
     @FindBy(xpath = "//select[@id='event_id']")
     private WebElement evenTitleLabel;
@@ -48,12 +51,8 @@ public class CreateChallengePage extends BaseWebPage {
     }
 
     public void verifyCreateChallengePageLoaded() {
-        AssertHelper.assertElementIsDisplayed("Create Challenge header", pageHeader);
-        AssertHelper.assertElementIsDisplayed("Even Title", evenTitleLabel);
-        AssertHelper.assertElementIsDisplayed("Title Input", titleInput);
-        AssertHelper.assertElementIsDisplayed("Flag Input", flagInput);
-        AssertHelper.assertElementIsDisplayed("SubmitButton", submitButton);
-        AssertHelper.assertElementIsDisplayed("Description Textarea", descriptionTextarea);
+        AssertHelper.assertElementsAreDisplayed(readFields("pageHeader", "evenTitleLabel", "titleInput",
+                "flagInput", "submitButton", "descriptionTextarea"));
     }
 
     public void fillChallengeTitle(String title) {
@@ -94,8 +93,7 @@ public class CreateChallengePage extends BaseWebPage {
     public ChallengeHomePage submitChallenge() {
         LogUtil.info("Submitting new challenge");
         try {
-            Element.click(driver, submitButton, "Submit challenge button");
-            waitForPageToLoad();
+            clickAndWaitForNavigation(submitButton, "Submit challenge button");
             return new ChallengeHomePage(driver);
         } catch (Exception e) {
             LogUtil.error("Failed to submit challenge: " + e.getMessage());
@@ -106,12 +104,14 @@ public class CreateChallengePage extends BaseWebPage {
     public ChallengeHomePage createChallenge(String title, String flag, String description,
                                              String category, String points, String howToSolve, String filePath) {
         LogUtil.info("Creating new challenge with title: " + title);
-        fillChallengeTitle(title);
-        fillChallengeFlag(flag);
-        fillChallengeDescription(description);
-        selectChallengeCategory(category);
-        setPoints(points);
-        fillHowToSolve(howToSolve);
+        Map<String, String> fields = new LinkedHashMap<>();
+        fields.put("titleInput", title);
+        fields.put("flagInput", flag);
+        fields.put("descriptionTextarea", description);
+        fields.put("categoryDropdown", category);
+        fields.put("pointsDropdown", points);
+        fields.put("howToSolveTextarea", howToSolve);
+        fillFields(fields);
         if (filePath != null && !filePath.isEmpty()) {
             uploadChallengeFile(filePath);
         }
@@ -31,15 +31,13 @@ public class HomePage extends BaseWebPage {
     public HomePage(WebDriver driver) {
         super(driver);
         waitForPageToLoad();
-        AssertHelper.assertElementIsDisplayed("challengesLink", challengesLink);
-        AssertHelper.assertElementIsDisplayed("dashboardLink", dashboardLink);
-        AssertHelper.assertElementIsDisplayed("scoreboardLink", scoreboardLink);
+        AssertHelper.assertElementsAreDisplayed(readFields("challengesLink", "dashboardLink", "scoreboardLink"));
     }
 
     public ChallengesPage navigateToChallengesPage() {
         LogUtil.info("Navigating to Challenges page");
         try {
-            Element.click(driver, challengesLink, "Challenges link");
+            clickAndWaitForNavigation(challengesLink, "Challenges link");
             LogUtil.info("Clicked on Challenges link");
             return new ChallengesPage(driver);
         } catch (Exception e) {
@@ -52,7 +50,7 @@ public class HomePage extends BaseWebPage {
         LogUtil.startStep("Logout Process");
         try {
             Element.click(driver, userProfileIcon, "User Profile Icon");
-            Element.click(driver, logoutButton, "Logout Button");
+            clickAndWaitForNavigation(logoutButton, "Logout Button");
             LogUtil.pass("Logout successful");
         } catch (Exception e) {
             LogUtil.fail("Logout failed: " + e.getMessage());
@@ -2,10 +2,14 @@ package automation.ctflearn.web;
 
 import automation.utils.*;
 import automation.utils.web.BaseWebPage;
+import automation.utils.web.DomReader;
+import automation.utils.web.WebSessionCache;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.FindBy;
 
+import java.util.concurrent.locks.ReentrantLock;
+
 public class LoginPage extends BaseWebPage {
     @FindBy(xpath = "//input[@class='form-control' and @name='identifier']")
     private WebElement usernameInput;
@@ -37,10 +41,8 @@ public class LoginPage extends BaseWebPage {
 
     public boolean isLoginPageLoaded() {
         try {
-            return Element.isElementDisplayed(loginHeader) &&
-                    Element.isElementDisplayed(usernameInput) &&
-                    Element.isElementDisplayed(passwordInput) &&
-                    Element.isElementDisplayed(loginButton);
+            return readFields("loginHeader", "usernameInput", "passwordInput", "loginButton").values().stream()
+                    .allMatch(DomReader.ElementState::isDisplayed);
         } catch (Exception e) {
             LogUtil.warn("Error checking login page elements: " + e.getMessage());
             return false;
@@ -51,11 +53,36 @@ public class LoginPage extends BaseWebPage {
         return new LoginPage(driver);
     }
 
+    /**
+     * Log in using the cached session of the user when it is still valid, falling back to the login form.
+     * Only one worker per user performs the UI login, the others wait and reuse its session.
+     */
+    public static HomePage loginWithCachedSession(WebDriver driver, String email, String password) {
+        if (WebSessionCache.restore(driver, email)) {
+            return new HomePage(driver);
+        }
+
+        ReentrantLock lock = WebSessionCache.lockFor(email);
+        lock.lock();
+        try {
+            // Another worker may have logged in while we were waiting for the lock
+            if (WebSessionCache.restore(driver, email)) {
+                return new HomePage(driver);
+            }
+            LogUtil.info("No valid cached session for " + email + ", logging in through the UI");
+            HomePage homePage = navigateToLoginPage(driver).login(email, password);
+            WebSessionCache.store(driver, email);
+            return homePage;
+        } finally {
+            lock.unlock();
+        }
+    }
+
     public HomePage login(String email, String password) {
         LogUtil.info("Logging in with email: " + email);
         Element.sendKeys(driver, usernameInput, email, "email input");
         Element.sendKeys(driver, passwordInput, password, "Password input");
-        Element.click(driver, loginButton, "Login button");
+        clickAndWaitForNavigation(loginButton, "Login button");
         return new HomePage(driver);
     }
 }
\ No newline at end of file
@@ -1,11 +1,15 @@
 package automation.utils;
 
+import automation.utils.mobile.ScreenSnapshot;
+import automation.utils.web.DomReader;
 import org.openqa.selenium.WebElement;
 
+import java.util.Map;
+
 public class AssertHelper {
 
     public static void assertElementIsDisplayed(String description, WebElement element) {
-        boolean result = isElementDisplayed(element);
+        boolean result = isElementDisplayed(element, description, "web.timeout.explicit", 10);
         if (result) {
             LogUtil.pass("Element '" + description + "' is displayed on the page");
         } else {
@@ -13,6 +17,38 @@ public class AssertHelper {
         }
     }
 
+    /**
+     * Mobile counterpart of {@link #assertElementIsDisplayed}, probing within mobile.timeout.explicit
+     */
+    public static void assertScreenElementIsDisplayed(String description, WebElement element) {
+        boolean result = isElementDisplayed(element, description, "mobile.timeout.explicit", 15);
+        if (result) {
+            LogUtil.pass("Element '" + description + "' is displayed on the screen");
+        } else {
+            LogUtil.fail("Element '" + description + "' is NOT displayed on the screen");
+        }
+    }
+
+    public static void assertElementsAreDisplayed(Map<String, DomReader.ElementState> states) {
+        states.forEach((description, state) -> {
+            if (state.isDisplayed()) {
+                LogUtil.pass("Element '" + description + "' is displayed on the page");
+            } else {
+                LogUtil.fail("Element '" + description + "' is NOT displayed on the page");
+            }
+        });
+    }
+
+    public static void assertScreenElementsAreDisplayed(Map<String, ScreenSnapshot.ElementState> states) {
+        states.forEach((description, state) -> {
+            if (state.isDisplayed()) {
+                LogUtil.pass("Element '" + description + "' is displayed on the screen");
+            } else {
+                LogUtil.fail("Element '" + description + "' is NOT displayed on the screen");
+            }
+        });
+    }
+
     public static <T> void compareEquals(String what, T expected, T actual) {
         compareEquals(what, expected, actual, false);
     }
@@ -43,7 +79,11 @@ public class AssertHelper {
         }
     }
 
-    private static boolean isElementDisplayed(WebElement element) {
+    private static boolean isElementDisplayed(WebElement element, String description, String timeoutKey, int defaultTimeout) {
+        if (WaitUtil.isImplicitWaitZero()) {
+            long timeoutMillis = ConfigLoader.getPropertyAsInt(timeoutKey, defaultTimeout) * 1000L;
+            return WaitUtil.isElementDisplayedWithin(element, description, timeoutMillis);
+        }
         try {
             return element.isDisplayed();
         } catch (Exception e) {
@@ -2,6 +2,8 @@ package automation.utils;
 
 import java.io.File;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.apache.commons.lang3.StringUtils;
 import org.openqa.selenium.*;
@@ -9,6 +11,17 @@ import org.openqa.selenium.interactions.Actions;
 import org.openqa.selenium.support.ui.Select;
 
 public class Element {
+    private static final String SET_VALUE_SCRIPT =
+            "var el = arguments[0] || document.activeElement, text = arguments[1];" +
+            "if (!el) { return false; }" +
+            "var tag = el.tagName.toLowerCase();" +
+            "if (tag !== 'input' && tag !== 'textarea') { return false; }" +
+            "var proto = tag === 'textarea' ? HTMLTextAreaElement.prototype : HTMLInputElement.prototype;" +
+            "el.focus();" +
+            "Object.getOwnPropertyDescriptor(proto, 'value').set.call(el, arguments[2] ? el.value + text : text);" +
+            "el.dispatchEvent(new Event('input', { bubbles: true }));" +
+            "el.dispatchEvent(new Event('change', { bubbles: true }));" +
+            "return true;";
 
     public static WebElement findElementByXPath(WebDriver driver, String xpath, String description) {
         LogUtil.info("Finding element by XPath: " + description + " [" + xpath + "]");
@@ -83,7 +96,21 @@ public class Element {
     }
 
     public static void enterData(WebDriver driver, WebElement element, String value, String description, boolean useTyping) {
-        LogUtil.info("Enter the " + description + " as '" + value + "'");
+        enterData(driver, element, value, description, useTyping ? TypingMode.HUMAN : TypingMode.configured());
+    }
+
+    public static void enterData(WebDriver driver, WebElement element, String value, String description) {
+        enterData(driver, element, value, description, TypingMode.configured());
+    }
+
+    public static void enterData(WebDriver driver, WebElement element, String value, String description, TypingMode mode) {
+        TypingMode effectiveMode = effectiveMode(driver, mode);
+        LogUtil.info("Enter the " + description + " as '" + value + "' (" + effectiveMode + ")");
+        long start = System.nanoTime();
+        if (effectiveMode == TypingMode.INSTANT && setValue(driver, element, value, false)) {
+            recordTyping(start);
+            return;
+        }
         try {
             element.click();
         } catch (InvalidArgumentException e) {
@@ -103,28 +130,96 @@ public class Element {
             new Actions(driver).click(element).sendKeys(Keys.END).keyDown(Keys.SHIFT)
                     .sendKeys(Keys.HOME).keyUp(Keys.SHIFT).sendKeys(Keys.BACK_SPACE).perform();
         }
-        if (useTyping) {
-            typing(driver, value, description);
-            return;
+        if (effectiveMode == TypingMode.HUMAN) {
+            typeKeys(driver, value);
+        } else {
+            for (String chunk : chunks(value)) {
+                element.sendKeys(chunk);
+            }
         }
-        element.sendKeys(value);
+        recordTyping(start);
     }
 
-    public static void enterData(WebDriver driver, WebElement element, String value, String description) {
-        enterData(driver, element, value, description, false);
+    /**
+     * Type into the focused element one key at a time (human-paced)
+     */
+    public static void typing(WebDriver driver, String value, String description) {
+        typing(driver, value, description, TypingMode.HUMAN);
     }
 
-    public static void typing(WebDriver driver, String value, String description) {
-        LogUtil.info("Type the " + description + " as '" + value + "'");
-        Actions actions = new Actions(driver);
+    public static void typing(WebDriver driver, String value, String description, TypingMode mode) {
+        TypingMode effectiveMode = effectiveMode(driver, mode);
+        LogUtil.info("Type the " + description + " as '" + value + "' (" + effectiveMode + ")");
+        long start = System.nanoTime();
+        if (effectiveMode == TypingMode.INSTANT && setValue(driver, null, value, true)) {
+            recordTyping(start);
+            return;
+        }
+        if (effectiveMode == TypingMode.HUMAN) {
+            typeKeys(driver, value);
+        } else {
+            Actions actions = new Actions(driver);
+            for (String chunk : chunks(value)) {
+                actions.sendKeys(chunk);
+            }
+            actions.perform();
+        }
+        recordTyping(start);
+    }
 
+    private static void typeKeys(WebDriver driver, String value) {
+        long delayMillis = ConfigLoader.getPropertyAsInt("typing.human.delay.ms", 100);
+        Actions actions = new Actions(driver);
         for (char c : value.toCharArray()) {
-            actions.sendKeys(String.valueOf(c)).pause(Duration.ofMillis(100));
+            actions.sendKeys(String.valueOf(c)).pause(Duration.ofMillis(delayMillis));
         }
-        actions.pause(Duration.ofMillis(500));
+        actions.pause(Duration.ofMillis(delayMillis * 5));
         actions.perform();
     }
 
+    /**
+     * Set the value of an input or textarea (the focused one when element is null) through the native setter,
+     * firing the events a user would trigger
+     *
+     * @return false when there is no text field to set, so the caller can fall back to key events
+     */
+    private static boolean setValue(WebDriver driver, WebElement element, String value, boolean append) {
+        Object result = ((JavascriptExecutor) driver).executeScript(SET_VALUE_SCRIPT, element, value, append);
+        return Boolean.TRUE.equals(result);
+    }
+
+    private static TypingMode effectiveMode(WebDriver driver, TypingMode mode) {
+        if (mode == TypingMode.INSTANT && !isBrowserSession(driver)) {
+            return TypingMode.CHUNKED;
+        }
+        return mode;
+    }
+
+    private static boolean isBrowserSession(WebDriver driver) {
+        if (!(driver instanceof JavascriptExecutor) || !(driver instanceof HasCapabilities)) {
+            return false;
+        }
+        String browserName = ((HasCapabilities) driver).getCapabilities().getBrowserName();
+        return browserName != null && !browserName.isEmpty();
+    }
+
+    private static List<String> chunks(String value) {
+        int chunkSize = ConfigLoader.getPropertyAsInt("typing.chunk.size", 0);
+        List<String> chunks = new ArrayList<>();
+        if (chunkSize <= 0 || value.length() <= chunkSize) {
+            chunks.add(value);
+            return chunks;
+        }
+        for (int i = 0; i < value.length(); i += chunkSize) {
+            chunks.add(value.substring(i, Math.min(value.length(), i + chunkSize)));
+        }
+        return chunks;
+    }
+
+    private static void recordTyping(long startNanos) {
+        PerfMetrics.record("typing.ms", PerfMetrics.elapsedMillis(startNanos));
+    }
+
     public static Boolean isElementDisplayed(WebElement element) {
         Boolean visible = true;
         if (element == null) {
@@ -12,6 +12,7 @@ public class LogUtil {
     private static boolean isReportingEnabled = true;
     private static boolean isConsoleLoggingEnabled = true;
     private static boolean isFileLoggingEnabled = true;
+    private static final ThreadLocal<String> currentStep = new ThreadLocal<>();
 
     public static void init(boolean reportingEnabled, boolean consoleLoggingEnabled, boolean fileLoggingEnabled) {
         isReportingEnabled = reportingEnabled;
@@ -56,6 +57,7 @@ public class LogUtil {
     }
 
     public static void startStep(String stepName) {
+        currentStep.set(stepName.trim());
         if (isConsoleLoggingEnabled || isFileLoggingEnabled) {
             logger.info("STEP: Starting " + stepName);
         }
@@ -65,6 +67,7 @@ public class LogUtil {
     }
 
     public static void endStep(String stepName) {
+        currentStep.remove();
         if (isConsoleLoggingEnabled || isFileLoggingEnabled) {
             logger.info("STEP: Completed " + stepName);
         }
@@ -73,7 +76,15 @@ public class LogUtil {
         }
     }
 
+    /**
+     * Step started last on the current thread, null outside of steps
+     */
+    public static String getCurrentStep() {
+        return currentStep.get();
+    }
+
     public static void startTest(String testName) {
+        currentStep.remove();
         if (isConsoleLoggingEnabled || isFileLoggingEnabled) {
             logger.info("TEST: Starting " + testName);
         }
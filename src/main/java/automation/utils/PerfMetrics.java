@@ -0,0 +1,95 @@
+package automation.utils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Collects timing and counter samples for the whole suite and for the test running on the current thread
+ */
+public class PerfMetrics {
+    private static final Map<String, Stat> suiteStats = new ConcurrentHashMap<>();
+    private static final ThreadLocal<Map<String, Stat>> testStats = ThreadLocal.withInitial(LinkedHashMap::new);
+
+    public static void record(String name, long value) {
+        suiteStats.computeIfAbsent(name, key -> new Stat()).add(value);
+        testStats.get().computeIfAbsent(name, key -> new Stat()).add(value);
+    }
+
+    public static long elapsedMillis(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    public static Stat getTestStat(String name) {
+        return testStats.get().get(name);
+    }
+
+    public static Stat getSuiteStat(String name) {
+        return suiteStats.get(name);
+    }
+
+    public static void resetTest() {
+        testStats.remove();
+    }
+
+    public static void logTestSummary(String testName) {
+        Map<String, Stat> stats = testStats.get();
+        if (!stats.isEmpty()) {
+            LogUtil.info("Performance metrics for '" + testName + "': " + format(stats));
+        }
+        testStats.remove();
+    }
+
+    public static void logSuiteSummary() {
+        if (suiteStats.isEmpty()) {
+            return;
+        }
+        LogUtil.info("Suite performance metrics:");
+        new TreeMap<>(suiteStats).forEach((name, stat) -> LogUtil.info("  " + name + " -> " + stat));
+    }
+
+    private static String format(Map<String, Stat> stats) {
+        StringBuilder sb = new StringBuilder();
+        stats.forEach((name, stat) -> {
+            if (sb.length() > 0) {
+                sb.append("; ");
+            }
+            sb.append(name).append(" [").append(stat).append("]");
+        });
+        return sb.toString();
+    }
+
+    public static class Stat {
+        private long count;
+        private long total;
+        private long max = Long.MIN_VALUE;
+
+        private synchronized void add(long value) {
+            count++;
+            total += value;
+            max = Math.max(max, value);
+        }
+
+        public synchronized long getCount() {
+            return count;
+        }
+
+        public synchronized long getTotal() {
+            return total;
+        }
+
+        public synchronized long getMax() {
+            return count == 0 ? 0 : max;
+        }
+
+        public synchronized long getAverage() {
+            return count == 0 ? 0 : total / count;
+        }
+
+        @Override
+        public synchronized String toString() {
+            return "count=" + count + ", total=" + total + ", avg=" + getAverage() + ", max=" + getMax();
+        }
+    }
+}
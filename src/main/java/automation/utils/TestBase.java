@@ -2,9 +2,14 @@ package automation.utils;
 
 import automation.utils.mobile.AppLauncher;
 import automation.utils.mobile.AppiumDriverManager;
+import automation.utils.metrics.KeyMetrics;
 import automation.utils.mobile.Mobile;
+import automation.utils.mobile.MobileSessionPool;
 import automation.utils.reporting.AllureReportManager;
 import automation.utils.reporting.HtmlReportManager;
+import automation.utils.runner.ResourceScheduler;
+import automation.utils.web.NetworkPolicy;
+import automation.utils.web.PageTimings;
 import automation.utils.web.WebDriverFactory;
 import io.appium.java_client.AppiumDriver;
 import org.apache.commons.io.FileUtils;
@@ -12,6 +17,7 @@ import org.openqa.selenium.OutputType;
 import org.openqa.selenium.TakesScreenshot;
 import org.openqa.selenium.WebDriver;
 import org.testng.ITestContext;
+import org.testng.ITestNGMethod;
 import org.testng.ITestResult;
 import org.testng.annotations.*;
 import org.testng.asserts.SoftAssert;
@@ -26,19 +32,22 @@ import java.util.Date;
  * Base class for all test classes
  */
 public class TestBase {
-    protected WebDriver driver;
-    protected AppiumDriver appiumDriver;
-    protected SoftAssert softAssert;
-    protected boolean isMobile;
+    // Driver state is confined to the worker thread so methods of one class can run in parallel
+    private static final ThreadLocal<WebDriver> threadDriver = new ThreadLocal<>();
+    private static final ThreadLocal<AppiumDriver> threadAppiumDriver = new ThreadLocal<>();
+    private static final ThreadLocal<Boolean> threadIsMobile = ThreadLocal.withInitial(() -> false);
+    private static final ThreadLocal<Long> threadSetupStart = new ThreadLocal<>();
+    private static final ThreadLocal<Long> threadBodyEnd = new ThreadLocal<>();
+    private static final ThreadLocal<SoftAssert> threadSoftAssert = new ThreadLocal<>();
 
     // Common credentials for mobile tests
-    protected String email;
-    protected String password;
-    protected String passcode;
+    private static final ThreadLocal<String> threadEmail = new ThreadLocal<>();
+    private static final ThreadLocal<String> threadPassword = new ThreadLocal<>();
+    private static final ThreadLocal<String> threadPasscode = new ThreadLocal<>();
 
     // Web credentials
-    protected String webUsername;
-    protected String webPassword;
+    private static final ThreadLocal<String> threadWebUsername = new ThreadLocal<>();
+    private static final ThreadLocal<String> threadWebPassword = new ThreadLocal<>();
 
     /**
      * Setup method run before suite
@@ -49,6 +58,68 @@ public class TestBase {
     public void beforeSuite(ITestContext context) {
         ConfigLoader.init();
         LogUtil.startTest("Test Suite: " + context.getSuite().getName());
+        if (suiteHasTests(context, false)) {
+            WebDriverFactory.prewarm(ConfigLoader.getPropertyAsInt("web.pool.prewarm", 0));
+        }
+        if (suiteHasTests(context, true) && !ConfigLoader.getPropertyAsBoolean("appium.remote", false)
+                && ConfigLoader.getPropertyAsBoolean("appium.server.prewarm", true)) {
+            AppiumDriverManager.prewarmAppiumServer();
+        }
+    }
+
+    /**
+     * Check whether the suite contains web or mobile test methods
+     *
+     * @param context TestNG test context
+     * @param mobile  true to look for mobile tests, false for web tests
+     * @return true if at least one matching test method is part of the suite
+     */
+    private boolean suiteHasTests(ITestContext context, boolean mobile) {
+        for (ITestNGMethod testMethod : context.getSuite().getAllMethods()) {
+            Method method = testMethod.getConstructorOrMethod().getMethod();
+            boolean methodIsMobile = method.isAnnotationPresent(Mobile.class)
+                    || testMethod.getRealClass().isAnnotationPresent(Mobile.class);
+            if (methodIsMobile == mobile) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    protected WebDriver getDriver() {
+        return threadDriver.get();
+    }
+
+    protected AppiumDriver getAppiumDriver() {
+        return threadAppiumDriver.get();
+    }
+
+    protected boolean isMobileTest() {
+        return threadIsMobile.get();
+    }
+
+    protected SoftAssert getSoftAssert() {
+        return threadSoftAssert.get();
+    }
+
+    protected String getEmail() {
+        return threadEmail.get();
+    }
+
+    protected String getPassword() {
+        return threadPassword.get();
+    }
+
+    protected String getPasscode() {
+        return threadPasscode.get();
+    }
+
+    protected String getWebUsername() {
+        return threadWebUsername.get();
+    }
+
+    protected String getWebPassword() {
+        return threadWebPassword.get();
     }
 
     /**
@@ -57,10 +128,6 @@ public class TestBase {
     @BeforeClass
     public void beforeClass() {
         LogUtil.info("Starting test class: " + this.getClass().getSimpleName());
-        softAssert = new SoftAssert();
-        webUsername = ConfigLoader.getProperty("web.username");
-        webPassword = ConfigLoader.getProperty("web.password");
-        LogUtil.info("Loaded web credentials for username: " + webUsername);
     }
 
     /**
@@ -72,34 +139,59 @@ public class TestBase {
     @BeforeMethod
     public void beforeMethod(Method method, ITestContext testContext) {
         String testName = method.getName();
+        threadSetupStart.set(System.currentTimeMillis());
+        KeyMetrics.startTest(getClass().getName(), testName);
         LogUtil.startTest("Test Method: " + testName);
+        PerfMetrics.resetTest();
+        threadSoftAssert.set(new SoftAssert());
 
-        isMobile = method.isAnnotationPresent(Mobile.class) ||
+        boolean isMobile = method.isAnnotationPresent(Mobile.class) ||
                 this.getClass().isAnnotationPresent(Mobile.class);
+        threadIsMobile.set(isMobile);
+
+        if (ResourceScheduler.isEnabled()) {
+            if (isMobile) {
+                Mobile mobile = method.isAnnotationPresent(Mobile.class) ? method.getAnnotation(Mobile.class)
+                        : this.getClass().getAnnotation(Mobile.class);
+                ResourceScheduler.acquireDevice(mobile.device());
+            } else {
+                ResourceScheduler.acquireBrowser();
+            }
+        }
 
         if (isMobile) {
             setupMobileTest();
         } else {
-            setupWebTest();
+            try {
+                setupWebTest();
+            } catch (RuntimeException e) {
+                // No after methods run for a failed setup, give the browser slot back here
+                ResourceScheduler.release();
+                throw e;
+            }
         }
     }
 
     private void setupWebTest() {
         LogUtil.info("Setting up web test");
-        driver = WebDriverFactory.getDriver();
+        threadWebUsername.set(ConfigLoader.getProperty("web.username"));
+        threadWebPassword.set(ConfigLoader.getProperty("web.password"));
+        LogUtil.info("Loaded web credentials for username: " + getWebUsername());
+        threadDriver.set(WebDriverFactory.getDriver());
     }
 
     private void setupMobileTest() {
         LogUtil.info("Setting up mobile test");
         try {
-            email = ConfigLoader.getProperty("mobile.username");
-            password = ConfigLoader.getProperty("mobile.password");
-            passcode = ConfigLoader.getProperty("mobile.passcode");
-            LogUtil.info("Using credentials - Email: " + email + ", Passcode: " + passcode);
-
-            String platform = ConfigLoader.getProperty("appium.platform", "android");
-            appiumDriver = AppiumDriverManager.getDriver(platform);
-            driver = appiumDriver;
+            threadEmail.set(ConfigLoader.getProperty("mobile.username"));
+            threadPassword.set(ConfigLoader.getProperty("mobile.password"));
+            threadPasscode.set(ConfigLoader.getProperty("mobile.passcode"));
+            LogUtil.info("Using credentials - Email: " + getEmail() + ", Passcode: " + getPasscode());
+
+            // The session itself is created by launchApp, only the local server has to be up by then
+            if (!ConfigLoader.getPropertyAsBoolean("appium.remote", false)) {
+                AppiumDriverManager.awaitAppiumServer();
+            }
         } catch (Exception e) {
             LogUtil.error("Failed to set up mobile test: " + e.getMessage());
             e.printStackTrace();
@@ -108,11 +200,17 @@ public class TestBase {
 
     @BeforeMethod(dependsOnMethods = "beforeMethod")
     public void launchApp() {
-        if (isMobile) {
+        if (isMobileTest()) {
             try {
-                LogUtil.info("Launching mobile app using AppLauncher");
-                appiumDriver = AppLauncher.launchExnessApp();
-                driver = appiumDriver; // Update driver reference
+                AppiumDriver appiumDriver;
+                if (MobileSessionPool.isEnabled()) {
+                    appiumDriver = MobileSessionPool.acquire();
+                } else {
+                    LogUtil.info("Launching mobile app using AppLauncher");
+                    appiumDriver = AppLauncher.launchExnessApp();
+                }
+                threadAppiumDriver.set(appiumDriver);
+                threadDriver.set(appiumDriver); // Update driver reference
                 LogUtil.info("Mobile app launched successfully");
             } catch (Exception e) {
                 LogUtil.error("Failed to launch mobile app: " + e.getMessage());
@@ -123,8 +221,13 @@ public class TestBase {
 
     @AfterMethod
     public void afterMethod(ITestResult result) {
+        recordTestPhases(result);
+        if (!isMobileTest()) {
+            PageTimings.applyBudgets(result);
+        }
+
         // Take screenshot if test failed and driver is available
-        if (result.getStatus() == ITestResult.FAILURE && driver != null) {
+        if (result.getStatus() == ITestResult.FAILURE && getDriver() != null) {
             try {
                 takeScreenshot(result.getName());
             } catch (Exception e) {
@@ -140,18 +243,81 @@ public class TestBase {
             LogUtil.warn("Test Skipped: " + result.getName());
         }
 
+        if (!isMobileTest()) {
+            NetworkPolicy.recordTestStats(getDriver());
+        }
+        PerfMetrics.logTestSummary(result.getName());
         LogUtil.endTest(result.getName(), result.isSuccess());
     }
 
     @AfterMethod(dependsOnMethods = "afterMethod")
-    public void closeMobileDriver() {
-        if (isMobile && appiumDriver != null) {
-            LogUtil.info("Closing AppiumDriver");
-            appiumDriver.quit();
+    public void closeMobileDriver(ITestResult result) {
+        AppiumDriver appiumDriver = getAppiumDriver();
+        if (isMobileTest() && appiumDriver != null) {
+            if (MobileSessionPool.isEnabled()) {
+                MobileSessionPool.release(appiumDriver, result.getStatus() == ITestResult.FAILURE);
+            } else {
+                LogUtil.info("Closing AppiumDriver");
+                appiumDriver.quit();
+            }
+            threadAppiumDriver.remove();
+            threadDriver.remove();
+        }
+        if (isMobileTest()) {
+            recordTeardown();
+            ResourceScheduler.release();
+        }
+    }
+
+    @AfterMethod(dependsOnMethods = "afterMethod")
+    public void releaseWebDriver() {
+        if (!isMobileTest() && getDriver() != null) {
+            LogUtil.info("Returning WebDriver to the pool");
+            WebDriverFactory.releaseDriver();
+            threadDriver.remove();
+        }
+        if (!isMobileTest()) {
+            recordTeardown();
+            ResourceScheduler.release();
+        }
+    }
+
+    /**
+     * Emit test:setup (before methods up to the test body) and test:body key-metrics events
+     */
+    private void recordTestPhases(ITestResult result) {
+        int platform = isMobileTest() ? KeyMetrics.PLATFORM_ANDROID : KeyMetrics.PLATFORM_WEB;
+        Long setupStart = threadSetupStart.get();
+        if (setupStart != null) {
+            KeyMetrics.record("test:setup", null, setupStart, result.getStartMillis() - setupStart, true, null,
+                    null, platform, "beforeMethod");
+        }
+        Throwable failure = result.getThrowable();
+        KeyMetrics.record("test:body", null, result.getStartMillis(), result.getEndMillis() - result.getStartMillis(),
+                result.isSuccess(), failure != null ? failure.toString() : null, null, platform, "");
+        threadBodyEnd.set(result.getEndMillis());
+    }
+
+    private void recordTeardown() {
+        Long bodyEnd = threadBodyEnd.get();
+        if (bodyEnd != null) {
+            int platform = isMobileTest() ? KeyMetrics.PLATFORM_ANDROID : KeyMetrics.PLATFORM_WEB;
+            KeyMetrics.record("test:teardown", null, bodyEnd, System.currentTimeMillis() - bodyEnd, true, null,
+                    null, platform, "afterMethod");
         }
+        threadSetupStart.remove();
+        threadBodyEnd.remove();
+        threadSoftAssert.remove();
+        threadEmail.remove();
+        threadPassword.remove();
+        threadPasscode.remove();
+        threadWebUsername.remove();
+        threadWebPassword.remove();
+        KeyMetrics.endTest();
     }
 
     protected void takeScreenshot(String testName) {
+        WebDriver driver = getDriver();
         if (driver instanceof TakesScreenshot) {
             try {
                 File screenshotFile = ((TakesScreenshot) driver).getScreenshotAs(OutputType.FILE);
@@ -171,7 +337,10 @@ public class TestBase {
     public void afterSuite(ITestContext context) {
         LogUtil.info("Cleaning up resources");
         WebDriverFactory.quitAllDrivers();
+        MobileSessionPool.quitAll();
         AppiumDriverManager.cleanup();
+        PerfMetrics.logSuiteSummary();
+        KeyMetrics.close();
         LogUtil.endTest("Test Suite: " + context.getSuite().getName(), true);
     }
 
@@ -0,0 +1,33 @@
+package automation.utils;
+
+/**
+ * How text is entered into fields by {@link Element#enterData} and {@link Element#typing}
+ */
+public enum TypingMode {
+    /**
+     * Set the value in one script call and fire input/change events (browsers only, native sessions use CHUNKED)
+     */
+    INSTANT,
+    /**
+     * Native sendKeys in chunks of typing.chunk.size characters (whole value when unset or 0), no pauses
+     */
+    CHUNKED,
+    /**
+     * One key at a time with typing.human.delay.ms between keys, for fields that react to every keystroke
+     */
+    HUMAN;
+
+    /**
+     * Mode configured for the current environment through typing.mode, CHUNKED (one sendKeys per value, as before
+     * typing modes existed) when the key is missing
+     */
+    public static TypingMode configured() {
+        String mode = ConfigLoader.getProperty("typing.mode", "chunked").trim();
+        try {
+            return valueOf(mode.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            LogUtil.warn("Unknown typing.mode '" + mode + "'. Using CHUNKED.");
+            return CHUNKED;
+        }
+    }
+}
@@ -2,10 +2,15 @@ package automation.utils;
 
 import java.time.Duration;
 
+import automation.utils.web.ObserverWait;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.StaleElementReferenceException;
 import org.openqa.selenium.TimeoutException;
 import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.ui.ExpectedConditions;
+import org.openqa.selenium.support.ui.FluentWait;
 import org.openqa.selenium.support.ui.WebDriverWait;
 
 public class WaitUtil {
@@ -26,7 +31,12 @@ public class WaitUtil {
     public static void waitForElementToBeVisible(WebDriver driver, WebElement element, String description, int timeoutInSeconds) {
         try {
             LogUtil.info("Waiting " + timeoutInSeconds + " seconds for element to be visible: " + description);
-            WebDriverWait wait = new WebDriverWait(driver, Duration.ofSeconds(timeoutInSeconds));
+            Duration remaining = waitWithObserver(driver, element, ObserverWait.VISIBLE, timeoutInSeconds, description);
+            if (remaining.isZero()) {
+                LogUtil.info("Element is now visible: " + description);
+                return;
+            }
+            WebDriverWait wait = new WebDriverWait(driver, remaining);
             wait.until(ExpectedConditions.visibilityOf(element));
 
             LogUtil.info("Element is now visible: " + description);
@@ -56,7 +66,12 @@ public class WaitUtil {
     public static void waitForElementToBeClickable(WebDriver driver, WebElement element, String description, int timeoutInSeconds) {
         try {
             LogUtil.info("Waiting " + timeoutInSeconds + " seconds for element to be clickable: " + description);
-            WebDriverWait wait = new WebDriverWait(driver, Duration.ofSeconds(timeoutInSeconds));
+            Duration remaining = waitWithObserver(driver, element, ObserverWait.CLICKABLE, timeoutInSeconds, description);
+            if (remaining.isZero()) {
+                LogUtil.info("Element is now clickable: " + description);
+                return;
+            }
+            WebDriverWait wait = new WebDriverWait(driver, remaining);
             wait.until(ExpectedConditions.elementToBeClickable(element));
 
             LogUtil.info("Element is now clickable: " + description);
@@ -68,4 +83,89 @@ public class WaitUtil {
             throw new AssertionError("Error waiting for element to be clickable: " + description, e);
         }
     }
+
+    /**
+     * Whether drivers run with implicit wait at zero and presence checks go through bounded explicit probes
+     */
+    public static boolean isImplicitWaitZero() {
+        return ConfigLoader.getPropertyAsBoolean("wait.implicit.zero", false);
+    }
+
+    /**
+     * Check an element that may legitimately be absent (popups, alternative links) within the short
+     * wait.optional.timeout.ms budget
+     *
+     * @param element     Element to probe
+     * @param description Element description for logging
+     * @return true if the element became visible within the budget
+     */
+    public static boolean isOptionalElementDisplayed(WebElement element, String description) {
+        long timeoutMillis = ConfigLoader.getPropertyAsInt("wait.optional.timeout.ms", 1500);
+        return isElementDisplayedWithin(element, description, timeoutMillis);
+    }
+
+    /**
+     * Probe an element for visibility for at most the given time. Without zero implicit wait the probe is a single
+     * check bounded by the implicit wait instead.
+     *
+     * @param element       Element to probe
+     * @param description   Element description for logging
+     * @param timeoutMillis Probe budget
+     * @return true if the element became visible within the budget
+     */
+    public static boolean isElementDisplayedWithin(WebElement element, String description, long timeoutMillis) {
+        long start = System.nanoTime();
+        boolean displayed;
+        if (isImplicitWaitZero()) {
+            try {
+                displayed = new FluentWait<>(element)
+                        .withTimeout(Duration.ofMillis(timeoutMillis))
+                        .pollingEvery(Duration.ofMillis(100))
+                        .ignoring(NoSuchElementException.class)
+                        .ignoring(StaleElementReferenceException.class)
+                        .until(WebElement::isDisplayed);
+            } catch (TimeoutException e) {
+                displayed = false;
+            }
+        } else {
+            displayed = Element.isElementDisplayed(element);
+        }
+        if (!displayed) {
+            long lostMillis = PerfMetrics.elapsedMillis(start);
+            PerfMetrics.record("wait.absent.ms", lostMillis);
+            LogUtil.info("Element '" + description + "' is not displayed (probed for " + lostMillis + " ms)");
+        }
+        return displayed;
+    }
+
+    /**
+     * Wait with a single observer script when the driver is a browser.
+     *
+     * @return Duration.ZERO if the condition is met, otherwise the time left for a polling wait
+     * @throws TimeoutException if the observer timed out
+     */
+    private static Duration waitWithObserver(WebDriver driver, WebElement element, String condition,
+                                             int timeoutInSeconds, String description) {
+        Duration timeout = Duration.ofSeconds(timeoutInSeconds);
+        if (!ObserverWait.isSupported(driver)) {
+            return timeout;
+        }
+        long start = System.nanoTime();
+        try {
+            boolean met = ObserverWait.waitFor(driver, element, condition, timeout.toMillis());
+            PerfMetrics.record("wait.observer.ms", PerfMetrics.elapsedMillis(start));
+            if (met) {
+                return Duration.ZERO;
+            }
+            throw new TimeoutException("Observer wait for '" + description + "' to be " + condition + " timed out");
+        } catch (WebDriverException e) {
+            if (e instanceof TimeoutException) {
+                throw e;
+            }
+            // Element without a locator not attached yet or detached while waiting, poll for the rest of the timeout
+            LogUtil.debug("Observer wait fell back to polling for " + description + ": " + e.getClass().getSimpleName());
+            Duration remaining = timeout.minusMillis(PerfMetrics.elapsedMillis(start));
+            return remaining.isNegative() || remaining.isZero() ? Duration.ofMillis(1) : remaining;
+        }
+    }
 }
\ No newline at end of file
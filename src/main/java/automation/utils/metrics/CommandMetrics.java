@@ -0,0 +1,153 @@
+package automation.utils.metrics;
+
+import automation.utils.LogUtil;
+import io.appium.java_client.proxy.MethodCallListener;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.support.events.EventFiringDecorator;
+import org.openqa.selenium.support.events.WebDriverListener;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Times every WebDriver and Appium command issued by a test and reports it to {@link KeyMetrics}.
+ * Only the outermost call is measured, so a command issued from within another one is not counted twice.
+ */
+public class CommandMetrics {
+    // Local accessors that never reach the driver
+    private static final Set<String> IGNORED_METHODS = Set.of("toString", "hashCode", "equals", "manage", "timeouts",
+            "window", "navigate", "switchTo", "getWrappedDriver", "getWrappedElement", "getCapabilities",
+            "getSessionId", "getDevTools", "maybeGetDevTools", "getCommandExecutor", "getErrorHandler",
+            "getFileDetector", "setFileDetector", "getId", "getRemoteAddress", "getExecuteMethod");
+
+    private static final ThreadLocal<Deque<long[]>> calls = ThreadLocal.withInitial(ArrayDeque::new);
+
+    private final int platform;
+
+    private CommandMetrics(int platform) {
+        this.platform = platform;
+    }
+
+    /**
+     * Wrap a browser driver so all driver and element commands are measured
+     *
+     * @param driver Freshly created browser driver
+     * @return The decorated driver, or the driver itself when metrics are disabled
+     */
+    public static WebDriver instrument(WebDriver driver) {
+        if (!KeyMetrics.isEnabled()) {
+            return driver;
+        }
+        CommandMetrics metrics = new CommandMetrics(KeyMetrics.PLATFORM_WEB);
+        return new EventFiringDecorator<>(new WebDriverListener() {
+            @Override
+            public void beforeAnyCall(Object target, Method method, Object[] args) {
+                metrics.begin(method);
+            }
+
+            @Override
+            public void afterAnyCall(Object target, Method method, Object[] args, Object result) {
+                metrics.end(method, args, null);
+            }
+
+            @Override
+            public void onError(Object target, Method method, Object[] args, InvocationTargetException e) {
+                metrics.end(method, args, e.getTargetException());
+            }
+        }).decorate(driver);
+    }
+
+    /**
+     * Listener for Appium drivers created through io.appium.java_client.proxy.Helpers.createProxy.
+     * Element commands go through the driver's execute method and are measured too.
+     *
+     * @param platform One of the KeyMetrics.PLATFORM_ constants
+     */
+    public static MethodCallListener appiumListener(int platform) {
+        CommandMetrics metrics = new CommandMetrics(platform);
+        return new MethodCallListener() {
+            @Override
+            public void beforeCall(Object obj, Method method, Object[] args) {
+                metrics.begin(method);
+            }
+
+            @Override
+            public void afterCall(Object obj, Method method, Object[] args, Object result) {
+                metrics.end(method, args, null);
+            }
+
+            @Override
+            public Object onError(Object obj, Method method, Object[] args, Throwable e) throws Throwable {
+                metrics.end(method, args, e);
+                throw e;
+            }
+        };
+    }
+
+    private void begin(Method method) {
+        if (!KeyMetrics.isEnabled() || IGNORED_METHODS.contains(method.getName())) {
+            return;
+        }
+        calls.get().push(new long[]{System.nanoTime(), System.currentTimeMillis()});
+    }
+
+    private void end(Method method, Object[] args, Throwable error) {
+        if (!KeyMetrics.isEnabled() || IGNORED_METHODS.contains(method.getName())) {
+            return;
+        }
+        Deque<long[]> stack = calls.get();
+        long[] start = stack.poll();
+        if (start == null || !stack.isEmpty()) {
+            return;
+        }
+        double durationMillis = (System.nanoTime() - start[0]) / 1_000_000.0;
+        String command = commandName(method, args);
+
+        Map<String, Object> details = new LinkedHashMap<>();
+        details.put("step", LogUtil.getCurrentStep());
+        String target = "execute".equals(method.getName()) ? null : describe(args);
+        if (target != null) {
+            details.put("target", target);
+        }
+        KeyMetrics.record("command:" + command, command, start[1], durationMillis, error == null,
+                error != null ? error.getClass().getSimpleName() + ": " + firstLine(error.getMessage()) : null,
+                details, platform, "");
+    }
+
+    private static String commandName(Method method, Object[] args) {
+        // RemoteWebDriver.execute(String command, Map parameters) carries the wire command name
+        if ("execute".equals(method.getName()) && args != null && args.length > 0 && args[0] instanceof String) {
+            return (String) args[0];
+        }
+        return method.getName();
+    }
+
+    private static String describe(Object[] args) {
+        if (args == null || args.length == 0) {
+            return null;
+        }
+        Object first = args[0];
+        if (first instanceof By) {
+            return first.toString();
+        }
+        if (first instanceof String) {
+            String text = (String) first;
+            return text.length() > 80 ? text.substring(0, 80) + "..." : text;
+        }
+        return null;
+    }
+
+    private static String firstLine(String message) {
+        if (message == null) {
+            return "";
+        }
+        int newline = message.indexOf('\n');
+        return newline < 0 ? message : message.substring(0, newline);
+    }
+}
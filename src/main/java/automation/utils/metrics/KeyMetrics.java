@@ -0,0 +1,160 @@
+package automation.utils.metrics;
+
+import automation.utils.ConfigLoader;
+import automation.utils.LogUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Streams measure events in the key-metrics.json schema as JSON lines. Callers only enqueue,
+ * a background thread serializes and appends the events to metrics.file.
+ */
+public class KeyMetrics {
+    public static final int PLATFORM_WEB = 0;
+    public static final int PLATFORM_ANDROID = 1;
+    public static final int PLATFORM_IOS = 2;
+    /**
+     * Worker of events recorded outside a test thread (pool warm-ups and resets, server start-up, ...)
+     */
+    public static final int BACKGROUND_WORKER = -1;
+
+    private static final Map<String, Object> POISON = new LinkedHashMap<>();
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final BlockingQueue<Map<String, Object>> queue = new LinkedBlockingQueue<>();
+    private static final AtomicInteger workerSequence = new AtomicInteger();
+    // Assigned on the first test a thread runs, threads that never run a test stay background
+    private static final ThreadLocal<Integer> worker = new ThreadLocal<>();
+    private static final ThreadLocal<String> currentTest = new ThreadLocal<>();
+    private static final ThreadLocal<String> currentTestClass = new ThreadLocal<>();
+    private static Thread writerThread;
+
+    public static boolean isEnabled() {
+        return ConfigLoader.getPropertyAsBoolean("metrics.enabled", false);
+    }
+
+    /**
+     * Name the test running on the current thread, attached to every event until {@link #endTest()}
+     *
+     * @param testClass Fully qualified name of the test class
+     * @param testName  Test method name
+     */
+    public static void startTest(String testClass, String testName) {
+        currentTestClass.set(testClass);
+        currentTest.set(testName);
+        if (worker.get() == null) {
+            worker.set(workerSequence.incrementAndGet());
+        }
+    }
+
+    public static void endTest() {
+        currentTest.remove();
+        currentTestClass.remove();
+    }
+
+    public static String getCurrentTest() {
+        return currentTest.get();
+    }
+
+    /**
+     * Queue one measure event
+     *
+     * @param eventName      Event name, e.g. command:findElement or test:body
+     * @param command        WebDriver command, null for non-command events
+     * @param startEpochMillis Start time in epoch milliseconds
+     * @param durationMillis Duration in milliseconds
+     * @param success        Whether the measured operation succeeded
+     * @param failure        Failure message, null on success
+     * @param details        Extra details, may be null
+     * @param platform       One of the PLATFORM_ constants
+     * @param hookType       TestNG hook the event belongs to, empty for test bodies and commands
+     */
+    public static void record(String eventName, String command, double startEpochMillis, double durationMillis,
+                              boolean success, String failure, Map<String, Object> details, int platform,
+                              String hookType) {
+        if (!isEnabled()) {
+            return;
+        }
+        Map<String, Object> event = new LinkedHashMap<>();
+        event.put("duration", durationMillis);
+        event.put("eventName", eventName);
+        event.put("startTime", startEpochMillis);
+        event.put("success", success);
+        Integer workerId = worker.get();
+        event.put("worker", workerId != null ? ConfigLoader.getPropertyAsInt("metrics.worker.base", 0) + workerId
+                : BACKGROUND_WORKER);
+        event.put("failure", failure);
+        event.put("details", details);
+        event.put("entryType", "measure");
+        event.put("platform", platform);
+        event.put("command", command);
+        event.put("testName", currentTest.get());
+        event.put("testClass", currentTestClass.get());
+        event.put("hookType", hookType != null ? hookType : "");
+        ensureWriter();
+        queue.offer(event);
+    }
+
+    /**
+     * Write out everything queued so far and stop the writer, called at the end of the suite
+     */
+    public static void close() {
+        Thread thread;
+        synchronized (KeyMetrics.class) {
+            thread = writerThread;
+            writerThread = null;
+        }
+        if (thread == null) {
+            return;
+        }
+        queue.offer(POISON);
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static synchronized void ensureWriter() {
+        if (writerThread != null) {
+            return;
+        }
+        File file = new File(ConfigLoader.getProperty("metrics.file", "logs/key-metrics.jsonl"));
+        if (file.getParentFile() != null) {
+            file.getParentFile().mkdirs();
+        }
+        writerThread = new Thread(() -> write(file), "key-metrics-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+        LogUtil.info("Streaming command metrics to " + file.getPath());
+    }
+
+    private static void write(File file) {
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(file, true))) {
+            while (true) {
+                Map<String, Object> event = queue.take();
+                if (event == POISON) {
+                    break;
+                }
+                writer.write(MAPPER.writeValueAsString(event));
+                writer.newLine();
+                if (queue.isEmpty()) {
+                    writer.flush();
+                }
+            }
+        } catch (IOException e) {
+            LogUtil.error("Failed to write key metrics to " + file.getPath() + ": " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,345 @@
+package automation.utils.metrics;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Command line analyzer for key-metrics files. Streams the events (pretty-printed JSON array or JSON lines),
+ * aggregates durations by eventName, testName and worker into running mean, variance and 1% percentile buckets
+ * without keeping the events, and compares them with a baseline summary using Welch's t-test.
+ * <p>
+ * Usage: MetricsAnalyzer &lt;metrics-file&gt; [--baseline summary.json] [--summary out.json] [--alpha 0.05]
+ * [--min-slowdown 0.10] [--min-samples 5] [--top 20]
+ * <p>
+ * Exit code 0 when no significant regression was found, 1 on regression, 2 on usage or I/O errors.
+ */
+public class MetricsAnalyzer {
+    private static final String[] DIMENSIONS = {"eventName", "testName", "worker"};
+    private static final ObjectMapper MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    private final Map<String, Map<String, Samples>> groups = new LinkedHashMap<>();
+    private long events;
+
+    public static void main(String[] args) {
+        Map<String, String> options = new LinkedHashMap<>();
+        String metricsFile = null;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].startsWith("--") && i + 1 < args.length) {
+                options.put(args[i].substring(2), args[++i]);
+            } else if (metricsFile == null) {
+                metricsFile = args[i];
+            }
+        }
+        if (metricsFile == null) {
+            System.err.println("Usage: MetricsAnalyzer <metrics-file> [--baseline summary.json] [--summary out.json]"
+                    + " [--alpha 0.05] [--min-slowdown 0.10] [--min-samples 5] [--top 20]");
+            System.exit(2);
+        }
+
+        try {
+            MetricsAnalyzer analyzer = new MetricsAnalyzer();
+            analyzer.read(new File(metricsFile));
+            ObjectNode summary = analyzer.summarize(metricsFile);
+            analyzer.printTable(Integer.parseInt(options.getOrDefault("top", "20")));
+
+            List<ObjectNode> regressions = new ArrayList<>();
+            if (options.containsKey("baseline")) {
+                regressions = analyzer.compare(MAPPER.readTree(new File(options.get("baseline"))),
+                        Double.parseDouble(options.getOrDefault("alpha", "0.05")),
+                        Double.parseDouble(options.getOrDefault("min-slowdown", "0.10")),
+                        Integer.parseInt(options.getOrDefault("min-samples", "5")));
+                summary.putArray("regressions").addAll(regressions);
+                printRegressions(regressions);
+            }
+            if (options.containsKey("summary")) {
+                File summaryFile = new File(options.get("summary"));
+                if (summaryFile.getParentFile() != null) {
+                    summaryFile.getParentFile().mkdirs();
+                }
+                MAPPER.writeValue(summaryFile, summary);
+                System.out.println("Summary written to " + summaryFile.getPath());
+            }
+            System.exit(regressions.isEmpty() ? 0 : 1);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Failed to analyze " + metricsFile + ": " + e.getMessage());
+            System.exit(2);
+        }
+    }
+
+    /**
+     * Stream the events of a metrics file, one object at a time
+     */
+    public void read(File file) throws IOException {
+        MetricsEvents.forEach(file, event -> {
+            events++;
+            double duration = event.get("duration").asDouble();
+            boolean failed = event.has("success") && !event.get("success").asBoolean(true);
+            for (String dimension : DIMENSIONS) {
+                JsonNode value = event.get(dimension);
+                if ("worker".equals(dimension) && value != null && value.asInt() == KeyMetrics.BACKGROUND_WORKER) {
+                    // Background threads are no test workers, their events still count by eventName
+                    continue;
+                }
+                String key = value == null || value.isNull() ? "(none)" : value.asText();
+                groups.computeIfAbsent(dimension, d -> new LinkedHashMap<>())
+                        .computeIfAbsent(key, k -> new Samples())
+                        .add(duration, failed);
+            }
+        });
+    }
+
+    public ObjectNode summarize(String source) {
+        ObjectNode summary = MAPPER.createObjectNode();
+        summary.put("source", source);
+        summary.put("events", events);
+        ArrayNode groupNodes = summary.putArray("groups");
+        groups.forEach((dimension, byKey) -> byKey.forEach((key, samples) -> {
+            ObjectNode node = groupNodes.addObject();
+            node.put("dimension", dimension);
+            node.put("key", key);
+            node.put("count", samples.size);
+            node.put("failures", samples.failures);
+            node.put("mean", samples.mean());
+            node.put("variance", samples.variance());
+            node.put("p50", samples.percentile(50));
+            node.put("p90", samples.percentile(90));
+            node.put("p99", samples.percentile(99));
+            node.put("max", samples.percentile(100));
+        }));
+        return summary;
+    }
+
+    /**
+     * Flag groups whose mean duration grew by more than minSlowdown with a one-sided Welch's t-test p-value below alpha
+     *
+     * @param baseline    Summary JSON written by an earlier run
+     * @param alpha       Significance level
+     * @param minSlowdown Minimal relative slowdown worth reporting, e.g. 0.10 for 10%
+     * @param minSamples  Minimal sample count on both sides
+     * @return One node per regression
+     */
+    public List<ObjectNode> compare(JsonNode baseline, double alpha, double minSlowdown, int minSamples) {
+        List<ObjectNode> regressions = new ArrayList<>();
+        for (JsonNode group : baseline.path("groups")) {
+            Map<String, Samples> byKey = groups.get(group.path("dimension").asText());
+            Samples current = byKey != null ? byKey.get(group.path("key").asText()) : null;
+            long baseCount = group.path("count").asLong();
+            if (current == null || current.size < minSamples || baseCount < minSamples) {
+                continue;
+            }
+            double baseMean = group.path("mean").asDouble();
+            double slowdown = baseMean > 0 ? (current.mean() - baseMean) / baseMean : 0;
+            if (slowdown <= minSlowdown) {
+                continue;
+            }
+            double pValue = welchOneSidedPValue(current.mean(), current.variance(), current.size,
+                    baseMean, group.path("variance").asDouble(), baseCount);
+            if (pValue < alpha) {
+                ObjectNode regression = MAPPER.createObjectNode();
+                regression.put("dimension", group.path("dimension").asText());
+                regression.put("key", group.path("key").asText());
+                regression.put("baselineMean", baseMean);
+                regression.put("currentMean", current.mean());
+                regression.put("slowdown", slowdown);
+                regression.put("pValue", pValue);
+                regressions.add(regression);
+            }
+        }
+        return regressions;
+    }
+
+    private void printTable(int top) {
+        System.out.println("Analyzed " + events + " events");
+        String format = "%-10s %-50s %7s %6s %10s %10s %10s %10s%n";
+        groups.forEach((dimension, byKey) -> {
+            System.out.println();
+            System.out.printf(format, "BY", dimension, "COUNT", "FAIL", "P50 ms", "P90 ms", "P99 ms", "MAX ms");
+            byKey.entrySet().stream()
+                    .sorted(Comparator.comparingDouble((Map.Entry<String, Samples> e) -> e.getValue().percentile(90)).reversed())
+                    .limit(top)
+                    .forEach(entry -> {
+                        Samples samples = entry.getValue();
+                        System.out.printf(format, dimension, abbreviate(entry.getKey(), 50), samples.size,
+                                samples.failures, round(samples.percentile(50)), round(samples.percentile(90)),
+                                round(samples.percentile(99)), round(samples.percentile(100)));
+                    });
+        });
+    }
+
+    private static void printRegressions(List<ObjectNode> regressions) {
+        System.out.println();
+        if (regressions.isEmpty()) {
+            System.out.println("No significant regressions against the baseline");
+            return;
+        }
+        System.out.println("REGRESSIONS (" + regressions.size() + "):");
+        for (ObjectNode regression : regressions) {
+            System.out.printf("  %-10s %-50s %10s -> %10s ms (+%.0f%%, p=%.4f)%n",
+                    regression.get("dimension").asText(), abbreviate(regression.get("key").asText(), 50),
+                    round(regression.get("baselineMean").asDouble()), round(regression.get("currentMean").asDouble()),
+                    regression.get("slowdown").asDouble() * 100, regression.get("pValue").asDouble());
+        }
+    }
+
+    /**
+     * P(T &gt; t) for the Welch statistic of "current is slower than baseline"
+     */
+    static double welchOneSidedPValue(double mean1, double var1, long n1, double mean2, double var2, long n2) {
+        double se1 = var1 / n1;
+        double se2 = var2 / n2;
+        if (se1 + se2 == 0) {
+            return mean1 > mean2 ? 0 : 1;
+        }
+        double t = (mean1 - mean2) / Math.sqrt(se1 + se2);
+        double df = (se1 + se2) * (se1 + se2) / (se1 * se1 / (n1 - 1) + se2 * se2 / (n2 - 1));
+        double tail = 0.5 * regularizedIncompleteBeta(df / (df + t * t), df / 2, 0.5);
+        return t > 0 ? tail : 1 - tail;
+    }
+
+    static double regularizedIncompleteBeta(double x, double a, double b) {
+        if (x <= 0) {
+            return 0;
+        }
+        if (x >= 1) {
+            return 1;
+        }
+        double front = Math.exp(logGamma(a + b) - logGamma(a) - logGamma(b) + a * Math.log(x) + b * Math.log(1 - x));
+        if (x < (a + 1) / (a + b + 2)) {
+            return front * betaContinuedFraction(x, a, b) / a;
+        }
+        return 1 - front * betaContinuedFraction(1 - x, b, a) / b;
+    }
+
+    private static double betaContinuedFraction(double x, double a, double b) {
+        double tiny = 1e-300;
+        double c = 1;
+        double d = 1 - (a + b) * x / (a + 1);
+        d = 1 / (Math.abs(d) < tiny ? tiny : d);
+        double result = d;
+        for (int m = 1; m <= 200; m++) {
+            int m2 = 2 * m;
+            double aa = m * (b - m) * x / ((a + m2 - 1) * (a + m2));
+            d = 1 / nonZero(1 + aa * d, tiny);
+            c = nonZero(1 + aa / c, tiny);
+            result *= d * c;
+            aa = -(a + m) * (a + b + m) * x / ((a + m2) * (a + m2 + 1));
+            d = 1 / nonZero(1 + aa * d, tiny);
+            c = nonZero(1 + aa / c, tiny);
+            double delta = d * c;
+            result *= delta;
+            if (Math.abs(delta - 1) < 1e-12) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    private static double nonZero(double value, double tiny) {
+        return Math.abs(value) < tiny ? tiny : value;
+    }
+
+    private static double logGamma(double x) {
+        // Lanczos approximation
+        double[] coefficients = {76.18009172947146, -86.50532032941677, 24.01409824083091,
+                -1.231739572450155, 0.1208650973866179e-2, -0.5395239384953e-5};
+        double y = x;
+        double tmp = x + 5.5;
+        tmp -= (x + 0.5) * Math.log(tmp);
+        double series = 1.000000000190015;
+        for (double coefficient : coefficients) {
+            series += coefficient / ++y;
+        }
+        return -tmp + Math.log(2.5066282746310005 * series / x);
+    }
+
+    private static String round(double value) {
+        return String.format("%.1f", value);
+    }
+
+    private static String abbreviate(String text, int length) {
+        return text.length() <= length ? text : text.substring(0, length - 3) + "...";
+    }
+
+    /**
+     * Streaming accumulator of one group: count, mean and variance (Welford) plus a histogram with buckets 1% wide,
+     * so memory does not grow with the number of events and percentiles are accurate to 1%
+     */
+    static class Samples {
+        private static final double BUCKET_GROWTH = 1.01;
+        private static final double LOG_GROWTH = Math.log(BUCKET_GROWTH);
+
+        private long[] buckets = new long[256];
+        private long size;
+        private long failures;
+        private double mean;
+        private double squares;
+        private double min = Double.MAX_VALUE;
+        private double max = -Double.MAX_VALUE;
+
+        void add(double value, boolean failed) {
+            size++;
+            double delta = value - mean;
+            mean += delta / size;
+            squares += delta * (value - mean);
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+            int bucket = bucketOf(value);
+            if (bucket >= buckets.length) {
+                buckets = Arrays.copyOf(buckets, Math.max(bucket + 1, buckets.length * 2));
+            }
+            buckets[bucket]++;
+            if (failed) {
+                failures++;
+            }
+        }
+
+        double mean() {
+            return mean;
+        }
+
+        double variance() {
+            return size < 2 ? 0 : squares / (size - 1);
+        }
+
+        /**
+         * Nearest-rank percentile, the upper bound of the bucket holding the rank clamped to the observed range
+         */
+        double percentile(double percent) {
+            if (size == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(percent / 100 * size));
+            long seen = 0;
+            for (int bucket = 0; bucket < buckets.length; bucket++) {
+                seen += buckets[bucket];
+                if (seen >= rank) {
+                    double upper = bucket == 0 ? 1 : Math.pow(BUCKET_GROWTH, bucket);
+                    return Math.max(min, Math.min(max, upper));
+                }
+            }
+            return max;
+        }
+
+        /**
+         * Bucket 0 holds values below 1 ms, bucket i values in (1.01^(i-1), 1.01^i]
+         */
+        private static int bucketOf(double value) {
+            if (value <= 1) {
+                return 0;
+            }
+            return Math.max(1, (int) Math.ceil(Math.log(value) / LOG_GROWTH - 1e-9));
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package automation.utils.metrics;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.function.Consumer;
+
+/**
+ * Streams the events of a key-metrics file, a pretty-printed JSON array or JSON lines, one object at a time
+ */
+public class MetricsEvents {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    public static void forEach(File file, Consumer<JsonNode> consumer) throws IOException {
+        // A managed parser unwraps a top level array, otherwise it reads consecutive root values (JSON lines)
+        try (MappingIterator<JsonNode> iterator = MAPPER.readerFor(JsonNode.class).readValues(file)) {
+            while (iterator.hasNextValue()) {
+                JsonNode event = iterator.nextValue();
+                JsonNode duration = event.get("duration");
+                if (duration != null && duration.isNumber()) {
+                    consumer.accept(event);
+                }
+            }
+        }
+    }
+}
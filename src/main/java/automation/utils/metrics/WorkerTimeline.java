@@ -0,0 +1,245 @@
+package automation.utils.metrics;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Turns the test phase events of a key-metrics file into per-worker Gantt data (setup, busy, teardown, idle),
+ * computes utilization and run time lower bounds and renders them as a standalone HTML/SVG report.
+ * <p>
+ * Usage: WorkerTimeline &lt;metrics-file&gt; [--out target/worker-timeline.html]
+ */
+public class WorkerTimeline {
+    private static final String SETUP = "setup";
+    private static final String BUSY = "busy";
+    private static final String TEARDOWN = "teardown";
+
+    private final Map<String, List<Segment>> workers = new TreeMap<>();
+    private double runStart = Double.MAX_VALUE;
+    private double runEnd = -Double.MAX_VALUE;
+
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.err.println("Usage: WorkerTimeline <metrics-file> [--out target/worker-timeline.html]");
+            System.exit(2);
+        }
+        String out = "target/worker-timeline.html";
+        for (int i = 1; i + 1 < args.length; i++) {
+            if ("--out".equals(args[i])) {
+                out = args[++i];
+            }
+        }
+        try {
+            WorkerTimeline timeline = new WorkerTimeline();
+            timeline.read(new File(args[0]));
+            if (timeline.workers.isEmpty()) {
+                System.err.println("No test phase events (test:setup/test:body/test:teardown) found in " + args[0]);
+                System.exit(2);
+            }
+            String summary = timeline.summary();
+            System.out.print(summary);
+            File report = new File(out);
+            if (report.getParentFile() != null) {
+                report.getParentFile().mkdirs();
+            }
+            Files.write(report.toPath(), timeline.toHtml(summary).getBytes(StandardCharsets.UTF_8));
+            System.out.println("Timeline written to " + report.getPath());
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Failed to build timeline from " + args[0] + ": " + e.getMessage());
+            System.exit(2);
+        }
+    }
+
+    public void read(File file) throws IOException {
+        MetricsEvents.forEach(file, event -> {
+            String phase = phaseOf(event.path("eventName").asText());
+            if (phase == null || event.path("worker").asInt() == KeyMetrics.BACKGROUND_WORKER) {
+                return;
+            }
+            double start = event.path("startTime").asDouble();
+            double end = start + event.get("duration").asDouble();
+            JsonNode testName = event.get("testName");
+            workers.computeIfAbsent(event.path("worker").asText("?"), w -> new ArrayList<>())
+                    .add(new Segment(phase, start, end, testName == null || testName.isNull() ? "" : testName.asText()));
+            runStart = Math.min(runStart, start);
+            runEnd = Math.max(runEnd, end);
+        });
+        workers.values().forEach(segments -> segments.sort(Comparator.comparingDouble(s -> s.start)));
+    }
+
+    private static String phaseOf(String eventName) {
+        switch (eventName) {
+            case "test:setup":
+                return SETUP;
+            case "test:body":
+                return BUSY;
+            case "test:teardown":
+                return TEARDOWN;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Utilization per worker and for the run, with the lower bounds the run time could reach
+     */
+    public String summary() {
+        double span = runEnd - runStart;
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("Run span %.1f s on %d worker(s)%n", span / 1000, workers.size()));
+        sb.append(String.format("%-8s %10s %10s %10s %10s %8s%n", "WORKER", "SETUP s", "BUSY s", "TEARDOWN s", "IDLE s", "UTIL"));
+
+        double totalActive = 0;
+        double tailIdle = 0;
+        for (Map.Entry<String, List<Segment>> entry : workers.entrySet()) {
+            double setup = total(entry.getValue(), SETUP);
+            double busy = total(entry.getValue(), BUSY);
+            double teardown = total(entry.getValue(), TEARDOWN);
+            double active = activeTime(entry.getValue());
+            totalActive += active;
+            tailIdle += runEnd - entry.getValue().get(entry.getValue().size() - 1).end;
+            sb.append(String.format("%-8s %10.1f %10.1f %10.1f %10.1f %7.0f%%%n", entry.getKey(), setup / 1000,
+                    busy / 1000, teardown / 1000, (span - active) / 1000, span > 0 ? active * 100 / span : 0));
+        }
+
+        int workerCount = workers.size();
+        double longestTest = longestTest();
+        double utilization = span > 0 ? totalActive * 100 / (span * workerCount) : 0;
+        sb.append(String.format("Overall utilization %.0f%%, idle waiting for the last worker to finish %.1f s%n",
+                utilization, tailIdle / 1000));
+        sb.append(String.format("Longest test (incl. setup and teardown) %.1f s%n", longestTest / 1000));
+        for (int threads : new int[]{workerCount, workerCount + 1, workerCount * 2}) {
+            sb.append(String.format("Lower bound with %d worker(s): %.1f s%n", threads,
+                    Math.max(longestTest, totalActive / threads) / 1000));
+        }
+        double bound = Math.max(longestTest, totalActive / workerCount);
+        if (span > 0 && bound / span > 0.9 && longestTest >= totalActive / workerCount) {
+            sb.append("The run is bound by its longest test, more threads would not shorten it\n");
+        } else if (span > 0 && bound / span < 0.8) {
+            sb.append("Workers idle while others finish, a better distribution of tests would shorten the run\n");
+        } else if (longestTest < totalActive / (workerCount * 2.0)) {
+            sb.append("Work is evenly spread, more threads would shorten the run\n");
+        }
+        return sb.toString();
+    }
+
+    public String toHtml(String summary) {
+        double span = Math.max(1, runEnd - runStart);
+        int width = 1200;
+        int rowHeight = 28;
+        int left = 80;
+        int height = workers.size() * rowHeight + 40;
+        StringBuilder svg = new StringBuilder();
+        svg.append("<svg xmlns='http://www.w3.org/2000/svg' width='").append(width + left + 20)
+                .append("' height='").append(height).append("' font-family='sans-serif' font-size='11'>");
+
+        int ticks = 10;
+        for (int i = 0; i <= ticks; i++) {
+            double x = left + width * i / (double) ticks;
+            svg.append(String.format("<line x1='%.1f' y1='0' x2='%.1f' y2='%d' stroke='#ddd'/>", x, x, height - 20));
+            svg.append(String.format("<text x='%.1f' y='%d' text-anchor='middle'>%.0fs</text>", x, height - 5,
+                    span * i / ticks / 1000));
+        }
+
+        int row = 0;
+        for (Map.Entry<String, List<Segment>> entry : workers.entrySet()) {
+            int y = row++ * rowHeight + 4;
+            svg.append(String.format("<text x='4' y='%d'>worker %s</text>", y + 16, escape(entry.getKey())));
+            svg.append(String.format("<rect x='%d' y='%d' width='%d' height='%d' fill='#eee'><title>idle</title></rect>",
+                    left, y, width, rowHeight - 6));
+            for (Segment segment : entry.getValue()) {
+                double x = left + (segment.start - runStart) / span * width;
+                double w = Math.max(1, (segment.end - segment.start) / span * width);
+                svg.append(String.format("<rect x='%.1f' y='%d' width='%.1f' height='%d' fill='%s'>"
+                                + "<title>%s %s: %.2f s</title></rect>", x, y, w, rowHeight - 6, colorOf(segment.phase),
+                        escape(segment.testName), segment.phase, (segment.end - segment.start) / 1000));
+            }
+        }
+        svg.append("</svg>");
+
+        return "<!DOCTYPE html><html><head><meta charset='utf-8'><title>Worker timeline</title></head>"
+                + "<body style='font-family:sans-serif'><h2>Worker timeline</h2>"
+                + "<p><span style='background:" + colorOf(SETUP) + "'>&nbsp;setup&nbsp;</span> "
+                + "<span style='background:" + colorOf(BUSY) + "'>&nbsp;busy&nbsp;</span> "
+                + "<span style='background:" + colorOf(TEARDOWN) + "'>&nbsp;teardown&nbsp;</span> "
+                + "<span style='background:#eee'>&nbsp;idle&nbsp;</span></p>"
+                + svg + "<pre>" + escape(summary) + "</pre></body></html>";
+    }
+
+    private static double total(List<Segment> segments, String phase) {
+        return segments.stream().filter(s -> s.phase.equals(phase)).mapToDouble(s -> s.end - s.start).sum();
+    }
+
+    /**
+     * Time covered by segments, overlapping segments counted once
+     */
+    private static double activeTime(List<Segment> segments) {
+        double active = 0;
+        double coveredUntil = -Double.MAX_VALUE;
+        for (Segment segment : segments) {
+            double start = Math.max(segment.start, coveredUntil);
+            if (segment.end > start) {
+                active += segment.end - start;
+            }
+            coveredUntil = Math.max(coveredUntil, segment.end);
+        }
+        return active;
+    }
+
+    /**
+     * Longest run of consecutive segments of one test on one worker, the part of the run no scheduling can split
+     */
+    private double longestTest() {
+        double longest = 0;
+        for (List<Segment> segments : workers.values()) {
+            String currentTest = null;
+            double testStart = 0;
+            for (Segment segment : segments) {
+                if (currentTest == null || !currentTest.equals(segment.testName) || SETUP.equals(segment.phase)) {
+                    currentTest = segment.testName;
+                    testStart = segment.start;
+                }
+                longest = Math.max(longest, segment.end - testStart);
+            }
+        }
+        return longest;
+    }
+
+    private static String colorOf(String phase) {
+        switch (phase) {
+            case SETUP:
+                return "#f0ad4e";
+            case BUSY:
+                return "#5cb85c";
+            default:
+                return "#5bc0de";
+        }
+    }
+
+    private static String escape(String text) {
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("'", "&#39;");
+    }
+
+    private static class Segment {
+        private final String phase;
+        private final double start;
+        private final double end;
+        private final String testName;
+
+        private Segment(String phase, double start, double end, String testName) {
+            this.phase = phase;
+            this.start = start;
+            this.end = end;
+            this.testName = testName;
+        }
+    }
+}
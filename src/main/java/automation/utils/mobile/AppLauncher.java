@@ -2,12 +2,39 @@ package automation.utils.mobile;
 
 import automation.utils.ConfigLoader;
 import automation.utils.LogUtil;
+import automation.utils.PerfMetrics;
+import automation.utils.runner.ResourceScheduler;
 import io.appium.java_client.AppiumDriver;
 import io.appium.java_client.android.AndroidDriver;
 import io.appium.java_client.android.options.UiAutomator2Options;
+import org.openqa.selenium.By;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 public class AppLauncher {
+    private static final List<String> FALLBACK_ACTIVITIES = List.of(
+            "com.exness.features.entry.impl.presentation.EntryActivity",
+            "com.exness.features.entry.impl.presentation.PremierEntryActivity");
+    private static final Pattern VERSION_NAME_PATTERN = Pattern.compile("versionName=(\\S+)");
+    private static final Map<String, String> appVersions = new ConcurrentHashMap<>();
 
     public static AppiumDriver launchExnessApp() {
         try {
@@ -15,7 +42,16 @@ public class AppLauncher {
 
             UiAutomator2Options options = new UiAutomator2Options();
 
-            options.setDeviceName(ConfigLoader.getProperty("appium.android.device", "Android Device"));
+            String device = ResourceScheduler.currentDevice();
+            String deviceKey = device != null ? device : ConfigLoader.getProperty("appium.android.device", "Android Device");
+            options.setDeviceName(deviceKey);
+            // Devices of a scheduled run are udids, appium.android.device is only a display name
+            String udid = device != null && !ConfigLoader.getProperty("scheduler.devices", "").isEmpty() ? device : null;
+            if (udid != null) {
+                // Each UiAutomator2 session needs its own system port
+                options.setUdid(udid);
+                options.setSystemPort(8200 + ResourceScheduler.getDevices().indexOf(device));
+            }
             options.setPlatformName("Android");
             options.setPlatformVersion(ConfigLoader.getProperty("appium.android.version", "13"));
             options.setAutomationName("UiAutomator2");
@@ -31,68 +67,48 @@ public class AppLauncher {
             options.setFullReset(fullReset);
             options.setAutoGrantPermissions(autoGrantPermissions);
 
-            String configuredActivity = ConfigLoader.getProperty("appium.android.app.activity");
+            String launchKey = deviceKey + "|" + appPackage + "|" + detectAppVersion(udid, appPackage);
+            List<String> activities = candidateActivities(launchKey);
+            URL appiumServerURL = new URL(ConfigLoader.getProperty("appium.remote.url", "http://localhost:4723/wd/hub"));
+            LogUtil.info("Using config values: appPackage=" + appPackage + ", noReset=" + noReset +
+                    ", fullReset=" + fullReset + ", autoGrantPermissions=" + autoGrantPermissions);
 
-            if (configuredActivity != null && !configuredActivity.isEmpty()) {
-                LogUtil.info("Using app activity from config: " + configuredActivity);
-                options.setAppActivity(configuredActivity);
+            long start = System.nanoTime();
+            AppiumDriver driver;
+            List<String> remaining = new ArrayList<>(activities);
+            String launchedActivity = remaining.remove(0);
+            try {
+                options.setAppActivity(launchedActivity);
+                driver = AppiumDriverManager.newDriver(AndroidDriver.class, appiumServerURL, options);
+            } catch (Exception e) {
+                LogUtil.warn("Failed to launch with activity: " + launchedActivity + ". Error: " + e.getMessage());
+                // Open the session on the package's launcher activity, the other candidates are started inside it
+                options.setCapability("appium:appActivity", (Object) null);
+                driver = AppiumDriverManager.newDriver(AndroidDriver.class, appiumServerURL, options);
+                launchedActivity = null;
+            }
 
+            if (launchedActivity != null && awaitReady(driver, launchedActivity)) {
+                return launched(driver, launchKey, launchedActivity, start);
+            }
+            for (String activity : remaining) {
                 try {
-                    // Get Appium server URL from config
-                    String appiumUrl = ConfigLoader.getProperty("appium.remote.url", "http://localhost:4723/wd/hub");
-                    URL appiumServerURL = new URL(appiumUrl);
-                    AppiumDriver driver = new AndroidDriver(appiumServerURL, options);
-
-                    LogUtil.info("Successfully connected to device and launched Exness app with activity: " + configuredActivity);
-                    LogUtil.info("Using config values: appPackage=" + appPackage + ", noReset=" + noReset +
-                            ", fullReset=" + fullReset + ", autoGrantPermissions=" + autoGrantPermissions);
-                    try {
-                        Thread.sleep(5000);
-                    } catch (InterruptedException e) {
-                        Thread.currentThread().interrupt();
+                    LogUtil.info("Starting fallback activity in the same session: " + activity);
+                    driver.executeScript("mobile: startActivity", Map.of("intent", appPackage + "/" + activity));
+                    if (awaitReady(driver, activity)) {
+                        return launched(driver, launchKey, activity, start);
                     }
-
-                    return driver;
                 } catch (Exception e) {
-                    LogUtil.warn("Failed to launch with configured activity: " + configuredActivity);
-                    LogUtil.warn("Will try fallback activities. Error: " + e.getMessage());
+                    LogUtil.warn("Failed to launch with activity: " + activity + ". Error: " + e.getMessage());
                 }
             }
 
-            String[] possibleActivities = {
-                    "com.exness.features.entry.impl.presentation.EntryActivity",
-                    "com.exness.features.entry.impl.presentation.PremierEntryActivity"
-            };
-            if (configuredActivity != null) {
-                for (int i = 0; i < possibleActivities.length; i++) {
-                    if (possibleActivities[i].equals(configuredActivity)) {
-                        continue;
-                    }
-
-                    try {
-                        options.setAppActivity(possibleActivities[i]);
-                        String appiumUrl = ConfigLoader.getProperty("appium.remote.url", "http://localhost:4723/wd/hub");
-                        URL appiumServerURL = new URL(appiumUrl);
-                        AppiumDriver driver = new AndroidDriver(appiumServerURL, options);
-
-                        LogUtil.info("Successfully connected to device and launched Exness app with fallback activity: " + possibleActivities[i]);
-                        LogUtil.info("Using config values: appPackage=" + appPackage + ", noReset=" + noReset +
-                                ", fullReset=" + fullReset + ", autoGrantPermissions=" + autoGrantPermissions);
-                        try {
-                            Thread.sleep(5000);
-                        } catch (InterruptedException e) {
-                            Thread.currentThread().interrupt();
-                        }
-
-                        return driver;
-                    } catch (Exception e) {
-                        LogUtil.warn("Failed to launch with activity: " + possibleActivities[i]);
-                        LogUtil.warn("Error details: " + e.getMessage());
-                    }
-                }
+            try {
+                driver.quit();
+            } catch (Exception e) {
+                LogUtil.warn("Failed to close the session of the app that did not start: " + e.getMessage());
             }
-
-            throw new RuntimeException("Could not launch Exness app with any known activity.");
+            throw new IllegalStateException("App did not report ready with any of the activities " + activities);
 
         } catch (Exception e) {
             LogUtil.error("Comprehensive failure in launching Exness app: " + e.getMessage());
@@ -113,6 +129,158 @@ public class AppLauncher {
         }
     }
 
+    private static AppiumDriver launched(AppiumDriver driver, String launchKey, String activity, long startNanos) {
+        long millis = PerfMetrics.elapsedMillis(startNanos);
+        PerfMetrics.record("app.launch.ms", millis);
+        LogUtil.info("Successfully connected to device and launched Exness app with activity: " + activity
+                + " (ready in " + millis + " ms)");
+        rememberActivity(launchKey, activity);
+        return driver;
+    }
+
+    /**
+     * Poll until one of appium.launch.anchors is on screen, or without anchors until the activity is in front
+     *
+     * @return true if the app became ready within appium.launch.ready.timeout.ms
+     */
+    private static boolean awaitReady(AppiumDriver driver, String activity) {
+        List<String> anchors = new ArrayList<>();
+        for (String anchor : ConfigLoader.getProperty("appium.launch.anchors", "").split(",")) {
+            if (!anchor.trim().isEmpty()) {
+                anchors.add(anchor.trim());
+            }
+        }
+        long deadline = System.currentTimeMillis() + ConfigLoader.getPropertyAsInt("appium.launch.ready.timeout.ms", 15000);
+        while (System.currentTimeMillis() < deadline) {
+            if (anchors.isEmpty()) {
+                String current = ((AndroidDriver) driver).currentActivity();
+                if (current != null && !current.isEmpty() && activity.endsWith(current)) {
+                    return true;
+                }
+            } else {
+                for (String anchor : anchors) {
+                    if (!driver.findElements(By.id(anchor)).isEmpty()) {
+                        return true;
+                    }
+                }
+            }
+            try {
+                Thread.sleep(250);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        LogUtil.warn("App was not ready with activity " + activity + " within the launch timeout");
+        return false;
+    }
+
+    /**
+     * Activity that last worked for this device and app version first, then the configured one, then known fallbacks
+     */
+    private static List<String> candidateActivities(String launchKey) {
+        Set<String> activities = new LinkedHashSet<>();
+        String remembered = readLaunchCache().getProperty(launchKey);
+        if (remembered != null) {
+            LogUtil.info("Launching remembered activity for " + launchKey + ": " + remembered);
+            activities.add(remembered);
+        }
+        String configuredActivity = ConfigLoader.getProperty("appium.android.app.activity");
+        if (configuredActivity != null && !configuredActivity.isEmpty()) {
+            activities.add(configuredActivity);
+        }
+        activities.addAll(FALLBACK_ACTIVITIES);
+        return new ArrayList<>(activities);
+    }
+
+    private static synchronized void rememberActivity(String launchKey, String activity) {
+        Properties cache = readLaunchCache();
+        if (activity.equals(cache.getProperty(launchKey))) {
+            return;
+        }
+        cache.setProperty(launchKey, activity);
+        Path cacheFile = getLaunchCacheFile();
+        try {
+            Files.createDirectories(cacheFile.getParent());
+            try (OutputStream output = Files.newOutputStream(cacheFile)) {
+                cache.store(output, "App activities keyed by device, package and app version");
+            }
+        } catch (IOException e) {
+            LogUtil.warn("Could not write app launch cache " + cacheFile + ": " + e.getMessage());
+        }
+    }
+
+    private static Properties readLaunchCache() {
+        Properties cache = new Properties();
+        Path cacheFile = getLaunchCacheFile();
+        if (Files.exists(cacheFile)) {
+            try (InputStream input = Files.newInputStream(cacheFile)) {
+                cache.load(input);
+            } catch (IOException e) {
+                LogUtil.warn("Could not read app launch cache " + cacheFile + ": " + e.getMessage());
+            }
+        }
+        return cache;
+    }
+
+    private static Path getLaunchCacheFile() {
+        String configured = ConfigLoader.getProperty("appium.launch.cache.file");
+        if (configured != null && !configured.isEmpty()) {
+            return Paths.get(configured);
+        }
+        return Paths.get(System.getProperty("user.home"), ".cbtw", "app-launch.properties");
+    }
+
+    /**
+     * Installed versionName of the app from appium.android.app.version or adb, "unknown" when neither is available.
+     * Only versions adb actually reported are remembered, a failed lookup is retried on the next launch.
+     *
+     * @param udid Serial of the device for adb, null when it is not known
+     */
+    private static String detectAppVersion(String udid, String appPackage) {
+        String configured = ConfigLoader.getProperty("appium.android.app.version");
+        if (configured != null && !configured.isEmpty()) {
+            return configured;
+        }
+        if (udid == null) {
+            // Without a serial adb could pick any attached device
+            return "unknown";
+        }
+        String key = udid + "|" + appPackage;
+        String known = appVersions.get(key);
+        if (known != null) {
+            return known;
+        }
+
+        File outputFile = null;
+        try {
+            // Output goes to a file so a hanging adb cannot block past the timeout
+            outputFile = File.createTempFile("app-version", ".txt");
+            Process process = new ProcessBuilder("adb", "-s", udid, "shell", "dumpsys", "package", appPackage)
+                    .redirectErrorStream(true).redirectOutput(outputFile).start();
+            if (!process.waitFor(5, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+                return "unknown";
+            }
+            for (String line : Files.readAllLines(outputFile.toPath(), StandardCharsets.UTF_8)) {
+                Matcher matcher = VERSION_NAME_PATTERN.matcher(line);
+                if (matcher.find()) {
+                    appVersions.put(key, matcher.group(1));
+                    return matcher.group(1);
+                }
+            }
+        } catch (IOException e) {
+            // adb not on PATH, e.g. when the device is attached to a remote Appium server
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (outputFile != null) {
+                outputFile.delete();
+            }
+        }
+        return "unknown";
+    }
+
     public static void main(String[] args) {
         ConfigLoader.init();
         LogUtil.info("Starting Exness app launcher test");
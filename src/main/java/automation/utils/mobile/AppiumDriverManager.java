@@ -2,25 +2,39 @@ package automation.utils.mobile;
 
 import automation.utils.ConfigLoader;
 import automation.utils.LogUtil;
+import automation.utils.PerfMetrics;
+import automation.utils.metrics.CommandMetrics;
+import automation.utils.metrics.KeyMetrics;
 import io.appium.java_client.AppiumDriver;
 import io.appium.java_client.android.AndroidDriver;
 import io.appium.java_client.ios.IOSDriver;
+import io.appium.java_client.proxy.Helpers;
 import io.appium.java_client.service.local.AppiumDriverLocalService;
 import io.appium.java_client.service.local.AppiumServiceBuilder;
 import io.appium.java_client.service.local.flags.GeneralServerFlag;
+import org.openqa.selenium.Capabilities;
 import org.openqa.selenium.remote.DesiredCapabilities;
 
 import java.io.File;
+import java.net.HttpURLConnection;
 import java.net.URL;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * Manages Appium driver instances for mobile testing
  */
 public class AppiumDriverManager {
     private static Map<String, AppiumDriver> driverMap = new HashMap<>();
-    private static AppiumDriverLocalService appiumServer;
+    // Guards server start and stop only, so readers of the startup future never wait for the Node server to boot
+    private static final Object SERVER_LOCK = new Object();
+    private static volatile AppiumDriverLocalService appiumServer;
+    private static volatile CompletableFuture<URL> serverStartup;
+    private static long serverStartupMillis;
+    // The overlap is reported once per startup, by the first mobile setup that joins it
+    private static boolean serverStartupReported;
 
     public static AppiumDriver getDriver(String platform) {
         if (driverMap.containsKey(platform)) {
@@ -38,7 +52,7 @@ public class AppiumDriverManager {
         if (isRemote) {
             return createRemoteDriver(platform);
         } else {
-            startAppiumServerIfNeeded();
+            awaitAppiumServer();
             return createLocalDriver(platform);
         }
     }
@@ -49,12 +63,12 @@ public class AppiumDriverManager {
         try {
             switch (platform.toLowerCase()) {
                 case "android":
-                    return new AndroidDriver(appiumServer.getUrl(), getAndroidCapabilities());
+                    return newDriver(AndroidDriver.class, appiumServer.getUrl(), getAndroidCapabilities());
                 case "ios":
-                    return new IOSDriver(appiumServer.getUrl(), getIOSCapabilities());
+                    return newDriver(IOSDriver.class, appiumServer.getUrl(), getIOSCapabilities());
                 default:
                     LogUtil.warn("Platform '" + platform + "' not supported. Defaulting to Android");
-                    return new AndroidDriver(appiumServer.getUrl(), getAndroidCapabilities());
+                    return newDriver(AndroidDriver.class, appiumServer.getUrl(), getAndroidCapabilities());
             }
         } catch (Exception e) {
             LogUtil.error("Error creating Appium driver: " + e.getMessage());
@@ -76,12 +90,12 @@ public class AppiumDriverManager {
 
             switch (platform.toLowerCase()) {
                 case "android":
-                    return new AndroidDriver(url, getAndroidCapabilities());
+                    return newDriver(AndroidDriver.class, url, getAndroidCapabilities());
                 case "ios":
-                    return new IOSDriver(url, getIOSCapabilities());
+                    return newDriver(IOSDriver.class, url, getIOSCapabilities());
                 default:
                     LogUtil.warn("Platform '" + platform + "' not supported for remote execution. Defaulting to Android");
-                    return new AndroidDriver(url, getAndroidCapabilities());
+                    return newDriver(AndroidDriver.class, url, getAndroidCapabilities());
             }
         } catch (Exception e) {
             LogUtil.error("Error creating remote Appium driver: " + e.getMessage());
@@ -89,6 +103,20 @@ public class AppiumDriverManager {
         }
     }
 
+    /**
+     * Create an Appium driver whose commands are measured by {@link CommandMetrics}
+     *
+     * @param driverClass AndroidDriver or IOSDriver
+     * @param url         Appium server URL
+     * @param capabilities Session capabilities
+     * @return The new driver session
+     */
+    public static <T extends AppiumDriver> T newDriver(Class<T> driverClass, URL url, Capabilities capabilities) {
+        int platform = IOSDriver.class.isAssignableFrom(driverClass) ? KeyMetrics.PLATFORM_IOS : KeyMetrics.PLATFORM_ANDROID;
+        return Helpers.createProxy(driverClass, new Object[]{url, capabilities},
+                new Class<?>[]{URL.class, Capabilities.class}, CommandMetrics.appiumListener(platform));
+    }
+
     private static DesiredCapabilities getAndroidCapabilities() {
         DesiredCapabilities capabilities = new DesiredCapabilities();
 
@@ -180,7 +208,13 @@ public class AppiumDriverManager {
         return capabilities;
     }
 
-    public static synchronized void startAppiumServerIfNeeded() {
+    public static void startAppiumServerIfNeeded() {
+        synchronized (SERVER_LOCK) {
+            startServer();
+        }
+    }
+
+    private static void startServer() {
         if (appiumServer != null && appiumServer.isRunning()) {
             return;
         }
@@ -227,11 +261,113 @@ public class AppiumDriverManager {
         }
     }
 
-    public static synchronized void stopAppiumServer() {
-        if (appiumServer != null && appiumServer.isRunning()) {
-            LogUtil.info("Stopping Appium server");
-            appiumServer.stop();
-            appiumServer = null;
+    /**
+     * Start the local Appium server on a background thread, {@link #awaitAppiumServer()} blocks on it only when a
+     * mobile test needs the server
+     */
+    public static synchronized void prewarmAppiumServer() {
+        if (serverStartup != null || (appiumServer != null && appiumServer.isRunning())) {
+            return;
+        }
+        LogUtil.info("Starting Appium server in the background");
+        serverStartupReported = false;
+        long start = System.nanoTime();
+        serverStartup = CompletableFuture.supplyAsync(() -> {
+            startAppiumServerIfNeeded();
+            URL url = appiumServer.getUrl();
+            waitUntilReady(url);
+            serverStartupMillis = PerfMetrics.elapsedMillis(start);
+            return url;
+        }, runnable -> {
+            Thread thread = new Thread(runnable, "appium-server-prewarm");
+            thread.setDaemon(true);
+            thread.start();
+        });
+    }
+
+    /**
+     * Wait for the pre-warmed Appium server, or start it now when it was not pre-warmed
+     *
+     * @return URL of the ready server
+     */
+    public static URL awaitAppiumServer() {
+        // Everything from here on counts as time mobile setup was blocked
+        long start = System.nanoTime();
+        CompletableFuture<URL> startup = serverStartup;
+        if (startup == null) {
+            startAppiumServerIfNeeded();
+            return appiumServer.getUrl();
+        }
+
+        URL url;
+        try {
+            url = startup.join();
+        } catch (CompletionException e) {
+            synchronized (AppiumDriverManager.class) {
+                // Let the next mobile test retry instead of failing on the same future
+                if (serverStartup == startup) {
+                    serverStartup = null;
+                }
+            }
+            throw new RuntimeException("Appium server failed to start", e.getCause());
+        }
+        long blockedMillis = PerfMetrics.elapsedMillis(start);
+        PerfMetrics.record("appium.server.wait.ms", blockedMillis);
+        boolean firstJoin;
+        synchronized (AppiumDriverManager.class) {
+            firstJoin = !serverStartupReported;
+            serverStartupReported = true;
+        }
+        if (firstJoin) {
+            long hiddenMillis = Math.max(0, serverStartupMillis - blockedMillis);
+            PerfMetrics.record("appium.server.hidden.ms", hiddenMillis);
+            LogUtil.info("Appium server startup took " + serverStartupMillis + " ms, " + hiddenMillis
+                    + " ms of it overlapped with earlier tests and " + blockedMillis + " ms blocked mobile setup");
+        }
+        return url;
+    }
+
+    /**
+     * Poll the server's /status endpoint until it reports ready
+     */
+    private static void waitUntilReady(URL serverUrl) {
+        long deadline = System.currentTimeMillis() + ConfigLoader.getPropertyAsInt("appium.server.start.timeout", 60) * 1000L;
+        String status = serverUrl.toString().replaceAll("/$", "") + "/status";
+        while (System.currentTimeMillis() < deadline) {
+            try {
+                HttpURLConnection connection = (HttpURLConnection) new URL(status).openConnection();
+                connection.setConnectTimeout(1000);
+                connection.setReadTimeout(2000);
+                try {
+                    if (connection.getResponseCode() == 200) {
+                        return;
+                    }
+                } finally {
+                    connection.disconnect();
+                }
+            } catch (Exception e) {
+                // Not listening yet
+            }
+            try {
+                Thread.sleep(250);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while waiting for the Appium server", e);
+            }
+        }
+        throw new RuntimeException("Appium server did not report ready at " + status);
+    }
+
+    public static void stopAppiumServer() {
+        synchronized (AppiumDriverManager.class) {
+            serverStartup = null;
+        }
+        synchronized (SERVER_LOCK) {
+            if (appiumServer != null && appiumServer.isRunning()) {
+                LogUtil.info("Stopping Appium server");
+                appiumServer.stop();
+                appiumServer = null;
+            }
         }
     }
 
@@ -3,6 +3,7 @@ package automation.utils.mobile;
 import automation.utils.ConfigLoader;
 import automation.utils.Element;
 import automation.utils.LogUtil;
+import automation.utils.TypingMode;
 import automation.utils.WaitUtil;
 import io.appium.java_client.AppiumDriver;
 import io.appium.java_client.android.AndroidDriver;
@@ -13,6 +14,7 @@ import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.PageFactory;
 
 import java.time.Duration;
+import java.util.Map;
 
 public class BaseMobilePage {
     protected AppiumDriver driver;
@@ -33,7 +35,9 @@ public class BaseMobilePage {
         } catch (NumberFormatException e) {
             LogUtil.warn("Invalid mobile.timeout.explicit value. Using default of 15 seconds.");
         }
-        PageFactory.initElements(new AppiumFieldDecorator(driver, Duration.ofSeconds(timeoutInSeconds)), this);
+        // The decorator timeout acts as an implicit wait on every element lookup
+        Duration lookupTimeout = WaitUtil.isImplicitWaitZero() ? Duration.ZERO : Duration.ofSeconds(timeoutInSeconds);
+        PageFactory.initElements(new AppiumFieldDecorator(driver, lookupTimeout), this);
     }
 
     public void tap(WebElement element, String description) {
@@ -45,4 +49,31 @@ public class BaseMobilePage {
         WaitUtil.waitForElementToBeVisible(driver, element, description);
         Element.enterData(driver, element, text, description);
     }
-}
\ No newline at end of file
+
+    public void enterText(WebElement element, String text, String description, TypingMode mode) {
+        WaitUtil.waitForElementToBeVisible(driver, element, description);
+        Element.enterData(driver, element, text, description, mode);
+    }
+
+    /**
+     * Current screen from a single page source call, for local lookups without further Appium commands
+     */
+    public UiHierarchy snapshot() {
+        return UiHierarchy.capture(driver);
+    }
+
+    /**
+     * Read presence, visibility and text of several @AndroidFindBy fields of this screen. In the default snapshot mode
+     * all fields are checked against one page source, mobile.assert.mode=live looks each element up on the device.
+     *
+     * @param fieldNames Names of the @AndroidFindBy fields to read
+     * @return Element states keyed by field name
+     */
+    protected Map<String, ScreenSnapshot.ElementState> readFields(String... fieldNames) {
+        long timeoutMillis = ConfigLoader.getPropertyAsInt("mobile.timeout.explicit", 15) * 1000L;
+        if ("live".equalsIgnoreCase(ConfigLoader.getProperty("mobile.assert.mode", "snapshot"))) {
+            return ScreenSnapshot.readLive(this, fieldNames, timeoutMillis);
+        }
+        return ScreenSnapshot.read(driver, this, fieldNames, timeoutMillis);
+    }
+}
@@ -0,0 +1,122 @@
+package automation.utils.mobile;
+
+import automation.utils.ConfigLoader;
+import automation.utils.LogUtil;
+import automation.utils.PerfMetrics;
+import io.appium.java_client.AppiumDriver;
+import org.openqa.selenium.Point;
+import org.openqa.selenium.Rectangle;
+import org.openqa.selenium.interactions.Pause;
+import org.openqa.selenium.interactions.PointerInput;
+import org.openqa.selenium.interactions.Sequence;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * On-screen digit keypad located from one page source read. A whole code is entered as a single W3C pointer action
+ * sequence instead of a findElement and a tap per digit.
+ */
+public class Keypad {
+    private final AppiumDriver driver;
+    private final Map<Character, Point> keys;
+
+    private Keypad(AppiumDriver driver, Map<Character, Point> keys) {
+        this.driver = driver;
+        this.keys = keys;
+    }
+
+    /**
+     * Locate the digit keys on the current screen
+     *
+     * @param driver Appium driver
+     * @param digits Digits that must be on the keypad, e.g. the code to enter
+     * @return The keypad, or null when the layout check fails (a digit is missing, ambiguous or keys overlap)
+     */
+    public static Keypad locate(AppiumDriver driver, String digits) {
+        UiHierarchy screen = UiHierarchy.capture(driver);
+        Map<Character, Point> keys = new HashMap<>();
+        for (char digit = '0'; digit <= '9'; digit++) {
+            Point center = keyCenter(screen, digit);
+            if (center != null) {
+                keys.put(digit, center);
+            } else if (digits.indexOf(digit) >= 0) {
+                LogUtil.warn("Keypad layout check failed, no unique key for digit " + digit);
+                return null;
+            }
+        }
+        if (keys.values().stream().distinct().count() != keys.size()) {
+            LogUtil.warn("Keypad layout check failed, digit keys overlap");
+            return null;
+        }
+        if (!isGrid(keys)) {
+            LogUtil.warn("Keypad layout check failed, digits 1-9 are not laid out in rows of three");
+            return null;
+        }
+        return new Keypad(driver, keys);
+    }
+
+    /**
+     * Tap the digits of the code in one pointer action sequence
+     */
+    public void enter(String code) {
+        long start = System.nanoTime();
+        Duration press = Duration.ofMillis(ConfigLoader.getPropertyAsInt("mobile.keypad.press.ms", 50));
+        Duration pause = Duration.ofMillis(ConfigLoader.getPropertyAsInt("mobile.keypad.pause.ms", 80));
+        PointerInput finger = new PointerInput(PointerInput.Kind.TOUCH, "finger");
+        Sequence taps = new Sequence(finger, 0);
+        for (char digit : code.toCharArray()) {
+            Point key = keys.get(digit);
+            if (key == null) {
+                throw new IllegalArgumentException("Digit '" + digit + "' is not on the keypad");
+            }
+            taps.addAction(finger.createPointerMove(Duration.ZERO, PointerInput.Origin.viewport(), key.x, key.y));
+            taps.addAction(finger.createPointerDown(PointerInput.MouseButton.LEFT.asArg()));
+            // Hold briefly so the key registers as a tap, then leave the app time to consume it
+            taps.addAction(new Pause(finger, press));
+            taps.addAction(finger.createPointerUp(PointerInput.MouseButton.LEFT.asArg()));
+            taps.addAction(new Pause(finger, pause));
+        }
+        driver.perform(List.of(taps));
+        PerfMetrics.record("mobile.keypad.ms", PerfMetrics.elapsedMillis(start));
+    }
+
+    /**
+     * Center of the single key showing the digit, clickable nodes win over plain labels
+     */
+    private static Point keyCenter(UiHierarchy screen, char digit) {
+        List<UiHierarchy.Node> nodes = screen.findAll(String.format(
+                "//*[@text='%1$s' or @label='%1$s' or @value='%1$s' or @content-desc='%1$s']", digit));
+        List<UiHierarchy.Node> clickable = nodes.stream().filter(UiHierarchy.Node::isClickable).toList();
+        if (!clickable.isEmpty()) {
+            nodes = clickable;
+        }
+        if (nodes.size() != 1) {
+            return null;
+        }
+        Rectangle bounds = nodes.get(0).bounds();
+        return bounds == null || bounds.width <= 0 || bounds.height <= 0 ? null : nodes.get(0).center();
+    }
+
+    /**
+     * 1-2-3, 4-5-6 and 7-8-9 share a row each and run left to right, where those digits are known
+     */
+    private static boolean isGrid(Map<Character, Point> keys) {
+        for (String row : new String[]{"123", "456", "789"}) {
+            Point previous = null;
+            for (char digit : row.toCharArray()) {
+                Point key = keys.get(digit);
+                if (key == null) {
+                    continue;
+                }
+                if (previous != null && (Math.abs(key.y - previous.y) > 10 || key.x <= previous.x)) {
+                    return false;
+                }
+                previous = key;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,226 @@
+package automation.utils.mobile;
+
+import io.appium.java_client.pagefactory.AndroidFindBy;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Replays the {@link AndroidFindBy} locators of mobile page objects against saved UI hierarchy dumps
+ * ({@link UiHierarchy#dump}), reports what each lookup costs and suggests an equivalent id, accessibility id or
+ * UiSelector locator for XPath ones. Runs offline, no device or Appium server needed.
+ * <p>
+ * Usage: LocatorOptimizer &lt;hierarchy.xml&gt;... [--pages class,class] [--apply src/main/java]
+ * <p>
+ * On UiAutomator2 an XPath lookup serializes the whole view hierarchy before it is evaluated, while id, accessibility
+ * id and UiSelector lookups are resolved natively. A suggestion is only made when it selects exactly the same nodes as
+ * the original locator in the dump, --apply then rewrites the annotation in the page object source.
+ */
+public class LocatorOptimizer {
+    private static final String DEFAULT_PAGES = "automation.ctflearn.mobile.LoginScreen,"
+            + "automation.ctflearn.mobile.TradeScreen,automation.ctflearn.mobile.ProfileScreen";
+    private static final int REPLAYS = 50;
+
+    private final Map<File, UiHierarchy> dumps = new LinkedHashMap<>();
+    private final List<Result> results = new ArrayList<>();
+
+    public static void main(String[] args) {
+        List<File> files = new ArrayList<>();
+        String pages = DEFAULT_PAGES;
+        String sourceRoot = null;
+        for (int i = 0; i < args.length; i++) {
+            if ("--pages".equals(args[i]) && i + 1 < args.length) {
+                pages = args[++i];
+            } else if ("--apply".equals(args[i]) && i + 1 < args.length) {
+                sourceRoot = args[++i];
+            } else {
+                files.add(new File(args[i]));
+            }
+        }
+        if (files.isEmpty()) {
+            System.err.println("Usage: LocatorOptimizer <hierarchy.xml>... [--pages class,class] [--apply src/main/java]");
+            System.exit(2);
+        }
+
+        try {
+            LocatorOptimizer optimizer = new LocatorOptimizer();
+            for (File file : files) {
+                optimizer.load(file);
+            }
+            for (String page : pages.split(",")) {
+                optimizer.analyze(Class.forName(page.trim()));
+            }
+            System.out.print(optimizer.report());
+            if (sourceRoot != null) {
+                optimizer.apply(new File(sourceRoot));
+            }
+        } catch (ClassNotFoundException | IOException | RuntimeException e) {
+            System.err.println("Locator optimization failed: " + e.getMessage());
+            System.exit(2);
+        }
+    }
+
+    /**
+     * Add a hierarchy dump to replay the locators against, dumps are tried in the order they are loaded
+     */
+    public void load(File dump) {
+        dumps.put(dump, UiHierarchy.parse(dump));
+    }
+
+    public void analyze(Class<?> pageClass) {
+        for (Field field : pageClass.getDeclaredFields()) {
+            AndroidFindBy findBy = field.getAnnotation(AndroidFindBy.class);
+            if (findBy == null) {
+                continue;
+            }
+            String[] locator = UiLocator.of(findBy);
+            Result result = new Result(pageClass, field.getName(), locator[0], locator[1]);
+            for (Map.Entry<File, UiHierarchy> dump : dumps.entrySet()) {
+                List<UiHierarchy.Node> matches = UiLocator.find(dump.getValue(), result.strategy, result.value);
+                if (matches.isEmpty()) {
+                    continue;
+                }
+                result.dump = dump.getKey().getName();
+                result.matches = matches.size();
+                result.hierarchySize = dump.getValue().findAll("//*").size();
+                result.offlineMicros = replay(dump.getValue(), result.strategy, result.value);
+                if ("xpath".equals(result.strategy)) {
+                    suggest(result, dump.getValue(), matches, List.class.isAssignableFrom(field.getType()));
+                }
+                break;
+            }
+            results.add(result);
+        }
+    }
+
+    /**
+     * Cheapest native locator selecting exactly the nodes the XPath selects
+     */
+    private void suggest(Result result, UiHierarchy screen, List<UiHierarchy.Node> matches, boolean isList) {
+        UiHierarchy.Node first = matches.get(0);
+        String resourceId = first.resourceId();
+        String text = first.attribute("text");
+        String description = first.attribute("content-desc");
+        boolean hasId = resourceId != null && !resourceId.isEmpty();
+        boolean hasText = text != null && !text.isEmpty();
+
+        List<String[]> candidates = new ArrayList<>();
+        if (hasId) {
+            candidates.add(new String[]{"id", resourceId});
+        }
+        if (description != null && !description.isEmpty()) {
+            candidates.add(new String[]{"accessibility", description});
+        }
+        if (hasId && hasText) {
+            candidates.add(new String[]{"uiAutomator", "new UiSelector().resourceId(" + quote(resourceId) + ").text(" + quote(text) + ")"});
+        }
+        if (hasText) {
+            candidates.add(new String[]{"uiAutomator", "new UiSelector().text(" + quote(text) + ")"});
+        }
+        if (!isList && matches.size() == 1) {
+            if (hasId) {
+                List<UiHierarchy.Node> sameId = UiLocator.find(screen, "id", resourceId);
+                candidates.add(new String[]{"uiAutomator", "new UiSelector().resourceId(" + quote(resourceId)
+                        + ").instance(" + sameId.indexOf(first) + ")"});
+            }
+            if (hasText) {
+                List<UiHierarchy.Node> sameText = UiLocator.find(screen, "uiAutomator", "new UiSelector().text(" + quote(text) + ")");
+                candidates.add(new String[]{"uiAutomator", "new UiSelector().text(" + quote(text)
+                        + ").instance(" + sameText.indexOf(first) + ")"});
+            }
+        }
+
+        for (String[] candidate : candidates) {
+            if (UiLocator.find(screen, candidate[0], candidate[1]).equals(matches)) {
+                result.suggestion = candidate;
+                result.suggestionMicros = replay(screen, candidate[0], candidate[1]);
+                return;
+            }
+        }
+    }
+
+    public String report() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-36s %-13s %7s %11s %-22s %s%n", "LOCATOR", "STRATEGY", "MATCHES", "OFFLINE us",
+                "DEVICE COST", "SUGGESTION"));
+        for (Result result : results) {
+            String name = result.pageClass.getSimpleName() + "." + result.field;
+            if (result.dump == null) {
+                sb.append(String.format("%-36s %-13s %7s %11s %-22s %s%n", name, result.strategy, "-", "-", "-",
+                        "no match in any dump"));
+                continue;
+            }
+            String deviceCost = "xpath".equals(result.strategy)
+                    ? "dump " + result.hierarchySize + " nodes" : "native lookup";
+            String suggestion = result.suggestion == null ? ("xpath".equals(result.strategy) ? "keep (no equivalent)" : "")
+                    : annotation(result.suggestion) + String.format(" (%d us)", result.suggestionMicros);
+            sb.append(String.format("%-36s %-13s %7d %11d %-22s %s%n", name, result.strategy, result.matches,
+                    result.offlineMicros, deviceCost, suggestion));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Rewrite the XPath annotations that have a verified suggestion in the page object sources
+     */
+    public void apply(File sourceRoot) throws IOException {
+        for (Result result : results) {
+            if (result.suggestion == null) {
+                continue;
+            }
+            Path source = sourceRoot.toPath().resolve(result.pageClass.getName().replace('.', '/') + ".java");
+            String code = new String(Files.readAllBytes(source), StandardCharsets.UTF_8);
+            String original = "@AndroidFindBy(xpath = " + quote(result.value) + ")";
+            if (!code.contains(original)) {
+                System.out.println("Not applied, annotation not found verbatim: " + original);
+                continue;
+            }
+            Files.write(source, code.replace(original, annotation(result.suggestion)).getBytes(StandardCharsets.UTF_8));
+            System.out.println("Applied to " + source + ": " + annotation(result.suggestion));
+        }
+    }
+
+    private static long replay(UiHierarchy screen, String strategy, String value) {
+        long start = System.nanoTime();
+        for (int i = 0; i < REPLAYS; i++) {
+            UiLocator.find(screen, strategy, value);
+        }
+        return (System.nanoTime() - start) / REPLAYS / 1000;
+    }
+
+    private static String annotation(String[] locator) {
+        return "@AndroidFindBy(" + locator[0] + " = " + quote(locator[1]) + ")";
+    }
+
+    private static String quote(String value) {
+        return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+
+    private static class Result {
+        private final Class<?> pageClass;
+        private final String field;
+        private final String strategy;
+        private final String value;
+        private String dump;
+        private int matches;
+        private int hierarchySize;
+        private long offlineMicros;
+        private String[] suggestion;
+        private long suggestionMicros;
+
+        private Result(Class<?> pageClass, String field, String strategy, String value) {
+            this.pageClass = pageClass;
+            this.field = field;
+            this.strategy = strategy;
+            this.value = value;
+        }
+    }
+}
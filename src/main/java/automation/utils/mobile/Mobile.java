@@ -11,4 +11,8 @@ import java.lang.annotation.Target;
 @Retention(RetentionPolicy.RUNTIME)
 @Target({ElementType.METHOD, ElementType.TYPE})
 public @interface Mobile {
-}
\ No newline at end of file
+    /**
+     * Device slot the test needs, one of scheduler.devices. Empty to take any free device.
+     */
+    String device() default "";
+}
@@ -0,0 +1,147 @@
+package automation.utils.mobile;
+
+import automation.utils.ConfigLoader;
+import automation.utils.LogUtil;
+import automation.utils.PerfMetrics;
+import automation.utils.runner.ResourceScheduler;
+import io.appium.java_client.AppiumDriver;
+import io.appium.java_client.InteractsWithApps;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps one Appium session per device across test methods and resets the app between tests instead of creating a
+ * new UiAutomator2 session. A session is recreated after a failed test or after appium.session.max.tests tests.
+ */
+public class MobileSessionPool {
+    private static final Map<String, Session> idleSessions = new ConcurrentHashMap<>();
+    private static final Map<AppiumDriver, Session> leasedSessions = new ConcurrentHashMap<>();
+    private static final AtomicLong createdMillis = new AtomicLong();
+    private static final AtomicInteger created = new AtomicInteger();
+    private static final AtomicLong resetMillis = new AtomicLong();
+    private static final AtomicInteger reused = new AtomicInteger();
+
+    public static boolean isEnabled() {
+        return ConfigLoader.getPropertyAsBoolean("appium.session.reuse", false);
+    }
+
+    /**
+     * Session for the current device, reset to a freshly launched app
+     *
+     * @return A reused session, or a new one from {@link AppLauncher} when none is idle
+     */
+    public static AppiumDriver acquire() {
+        String device = deviceKey();
+        Session session = idleSessions.remove(device);
+        if (session != null) {
+            long start = System.nanoTime();
+            try {
+                resetApp(session.driver);
+                long millis = PerfMetrics.elapsedMillis(start);
+                resetMillis.addAndGet(millis);
+                reused.incrementAndGet();
+                PerfMetrics.record("appium.session.reset.ms", millis);
+                LogUtil.info("Reusing Appium session on " + device + " (test " + (session.uses + 1) + "), app reset in "
+                        + millis + " ms");
+                leasedSessions.put(session.driver, session);
+                return session.driver;
+            } catch (Exception e) {
+                LogUtil.warn("Resetting the reused Appium session failed, creating a new one: " + e.getMessage());
+                quit(session.driver);
+            }
+        }
+
+        long start = System.nanoTime();
+        AppiumDriver driver = AppLauncher.launchExnessApp();
+        long millis = PerfMetrics.elapsedMillis(start);
+        createdMillis.addAndGet(millis);
+        created.incrementAndGet();
+        PerfMetrics.record("appium.session.create.ms", millis);
+        leasedSessions.put(driver, new Session(device, driver));
+        return driver;
+    }
+
+    /**
+     * Hand the session back after a test, it is kept for the next test on the device unless the test failed or the
+     * session reached its test limit
+     *
+     * @param driver Session returned by {@link #acquire()}
+     * @param failed true if the test failed, the app may be in an unknown state
+     */
+    public static void release(AppiumDriver driver, boolean failed) {
+        Session session = leasedSessions.remove(driver);
+        if (session == null) {
+            quit(driver);
+            return;
+        }
+        session.uses++;
+        int maxTests = ConfigLoader.getPropertyAsInt("appium.session.max.tests", 20);
+        if (failed || session.uses >= maxTests) {
+            LogUtil.info("Recycling Appium session on " + session.device + " after " + session.uses + " test(s)"
+                    + (failed ? ", last test failed" : ""));
+            quit(driver);
+        } else if (idleSessions.putIfAbsent(session.device, session) != null) {
+            quit(driver);
+        }
+    }
+
+    /**
+     * Quit all idle sessions and log the session setup time saved by reuse
+     */
+    public static void quitAll() {
+        idleSessions.values().forEach(session -> quit(session.driver));
+        idleSessions.clear();
+        if (reused.get() > 0 && created.get() > 0) {
+            long averageCreate = createdMillis.get() / created.get();
+            long saved = averageCreate * reused.get() - resetMillis.get();
+            LogUtil.info("Appium sessions: " + created.get() + " created (avg " + averageCreate + " ms), "
+                    + reused.get() + " reused (avg reset " + resetMillis.get() / reused.get() + " ms), ~"
+                    + saved / 1000 + " s of session setup saved");
+        }
+    }
+
+    private static void resetApp(AppiumDriver driver) {
+        String appPackage = ConfigLoader.getProperty("appium.android.app.package", "com.exness.android.pa");
+        String mode = ConfigLoader.getProperty("appium.session.reset", "restart");
+        InteractsWithApps apps = (InteractsWithApps) driver;
+        switch (mode) {
+            case "none":
+                return;
+            case "clear":
+                // Wipes app data, tests start logged out
+                driver.executeScript("mobile: clearApp", Map.of("appId", appPackage));
+                break;
+            default:
+                apps.terminateApp(appPackage);
+                break;
+        }
+        apps.activateApp(appPackage);
+    }
+
+    private static String deviceKey() {
+        String device = ResourceScheduler.currentDevice();
+        return device != null ? device : ConfigLoader.getProperty("appium.android.device", "Android Device");
+    }
+
+    private static void quit(AppiumDriver driver) {
+        try {
+            driver.quit();
+        } catch (Exception e) {
+            LogUtil.warn("Error quitting Appium session: " + e.getMessage());
+        }
+    }
+
+    private static class Session {
+        private final String device;
+        private final AppiumDriver driver;
+        private int uses;
+
+        private Session(String device, AppiumDriver driver) {
+            this.device = device;
+            this.driver = driver;
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package automation.utils.mobile;
+
+import automation.utils.LogUtil;
+import automation.utils.PerfMetrics;
+import automation.utils.WaitUtil;
+import io.appium.java_client.AppiumDriver;
+import io.appium.java_client.pagefactory.AndroidFindBy;
+import org.openqa.selenium.Rectangle;
+import org.openqa.selenium.WebElement;
+
+import java.lang.reflect.Field;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Presence, visibility and text of a page object's declared elements read from one page source snapshot, checked
+ * locally instead of a wait and an isDisplayed call per element
+ */
+public class ScreenSnapshot {
+
+    /**
+     * Read the state of several @AndroidFindBy fields, taking a new snapshot until all of them are present or the
+     * timeout expires
+     *
+     * @param driver        Appium driver
+     * @param page          Page object declaring the fields
+     * @param fieldNames    Names of the @AndroidFindBy fields
+     * @param timeoutMillis Time to wait for fields that are not on screen yet
+     * @return Element states keyed by field name
+     */
+    public static Map<String, ElementState> read(AppiumDriver driver, Object page, String[] fieldNames, long timeoutMillis) {
+        Map<String, String[]> locators = new LinkedHashMap<>();
+        for (String fieldName : fieldNames) {
+            locators.put(fieldName, UiLocator.of(annotationOf(page, fieldName)));
+        }
+
+        long start = System.nanoTime();
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        int snapshots = 0;
+        while (true) {
+            UiHierarchy screen = UiHierarchy.capture(driver);
+            snapshots++;
+            Map<String, ElementState> states = new LinkedHashMap<>();
+            boolean allFound = true;
+            for (Map.Entry<String, String[]> locator : locators.entrySet()) {
+                List<UiHierarchy.Node> nodes = UiLocator.find(screen, locator.getValue()[0], locator.getValue()[1]);
+                ElementState state = nodes.isEmpty() ? ElementState.MISSING : ElementState.of(nodes.get(0));
+                allFound &= state.isFound();
+                states.put(locator.getKey(), state);
+            }
+            if (allFound || System.currentTimeMillis() >= deadline) {
+                PerfMetrics.record("mobile.snapshot.ms", PerfMetrics.elapsedMillis(start));
+                LogUtil.info("Read " + fieldNames.length + " element(s) of " + page.getClass().getSimpleName() + " from "
+                        + snapshots + " snapshot(s)");
+                return states;
+            }
+            try {
+                Thread.sleep(250);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return states;
+            }
+        }
+    }
+
+    /**
+     * Read the same fields with one live lookup each, the behaviour before snapshots: every element is given up to the
+     * timeout to become visible before it is checked
+     */
+    public static Map<String, ElementState> readLive(Object page, String[] fieldNames, long timeoutMillis) {
+        Map<String, ElementState> states = new LinkedHashMap<>();
+        for (String fieldName : fieldNames) {
+            Field field = fieldOf(page, fieldName);
+            WebElement element;
+            try {
+                field.setAccessible(true);
+                element = (WebElement) field.get(page);
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException("Cannot access field '" + fieldName + "'", e);
+            }
+            states.put(fieldName, WaitUtil.isElementDisplayedWithin(element, fieldName, timeoutMillis)
+                    ? ElementState.displayed(element) : ElementState.of(element));
+        }
+        return states;
+    }
+
+    private static AndroidFindBy annotationOf(Object page, String fieldName) {
+        AndroidFindBy findBy = fieldOf(page, fieldName).getAnnotation(AndroidFindBy.class);
+        if (findBy == null) {
+            throw new IllegalArgumentException("Field '" + fieldName + "' has no @AndroidFindBy locator");
+        }
+        return findBy;
+    }
+
+    /**
+     * Field declared on the page class or one of its superclasses
+     */
+    private static Field fieldOf(Object page, String fieldName) {
+        for (Class<?> type = page.getClass(); type != null; type = type.getSuperclass()) {
+            try {
+                return type.getDeclaredField(fieldName);
+            } catch (NoSuchFieldException e) {
+                // Keep looking in the superclass
+            }
+        }
+        throw new IllegalArgumentException("No element field '" + fieldName + "' on " + page.getClass().getSimpleName());
+    }
+
+    public static class ElementState {
+        private static final ElementState MISSING = new ElementState(false, false, "");
+
+        private final boolean found;
+        private final boolean displayed;
+        private final String text;
+
+        private ElementState(boolean found, boolean displayed, String text) {
+            this.found = found;
+            this.displayed = displayed;
+            this.text = text;
+        }
+
+        private static ElementState of(UiHierarchy.Node node) {
+            Rectangle bounds = node.bounds();
+            boolean displayed = !"false".equals(node.attribute("displayed"))
+                    && !"false".equals(node.attribute("visible"))
+                    && (bounds == null || (bounds.width > 0 && bounds.height > 0));
+            return new ElementState(true, displayed, node.text());
+        }
+
+        private static ElementState displayed(WebElement element) {
+            try {
+                return new ElementState(true, true, element.getText());
+            } catch (Exception e) {
+                return of(element);
+            }
+        }
+
+        private static ElementState of(WebElement element) {
+            try {
+                return new ElementState(true, element.isDisplayed(), element.getText());
+            } catch (Exception e) {
+                return MISSING;
+            }
+        }
+
+        public boolean isFound() {
+            return found;
+        }
+
+        public boolean isDisplayed() {
+            return displayed;
+        }
+
+        public String getText() {
+            return text;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package automation.utils.mobile;
+
+import automation.utils.ConfigLoader;
+import automation.utils.LogUtil;
+import automation.utils.PerfMetrics;
+import io.appium.java_client.AppiumDriver;
+import org.openqa.selenium.Rectangle;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Walks a scrolling list page by page: each page is read from one page source call, rows are parsed locally,
+ * de-duplicated by key and streamed to a consumer. Stops when a page brings no new rows or the list cannot scroll
+ * further. Only the keys seen so far are kept in memory.
+ */
+public class ScrollHarvester {
+
+    /**
+     * Harvest all rows of the list holding the given row id
+     *
+     * @param driver    Appium driver
+     * @param rowId     Resource id of one row, e.g. com.exness.android.pa:id/instrumentView
+     * @param rowParser Turns a fully visible row node into a row object, null to skip the row
+     * @param keyOf     Key de-duplicating rows seen on more than one page
+     * @param sink      Receives every new row once
+     * @return Number of distinct rows harvested
+     */
+    public static <T> int harvest(AppiumDriver driver, String rowId, Function<UiHierarchy.Node, T> rowParser,
+                                  Function<T, String> keyOf, Consumer<T> sink) {
+        int maxPages = ConfigLoader.getPropertyAsInt("mobile.harvest.max.pages", 200);
+        double percent = ConfigLoader.getPropertyAsInt("mobile.harvest.scroll.percent", 80) / 100.0;
+        String rowXpath = "//*[@resource-id=" + UiLocator.literal(rowId) + "]";
+        Set<String> seen = new HashSet<>();
+        long start = System.nanoTime();
+        int pages = 0;
+
+        while (pages < maxPages) {
+            UiHierarchy screen = UiHierarchy.capture(driver);
+            pages++;
+            // Innermost scrollable container of the rows, the RecyclerView
+            List<UiHierarchy.Node> containers = screen.findAll("//*[@scrollable='true'][." + rowXpath + "]");
+            Rectangle list = containers.isEmpty() ? null : containers.get(containers.size() - 1).bounds();
+
+            int newRows = 0;
+            for (UiHierarchy.Node row : screen.findAll(rowXpath)) {
+                if (list != null && !isInside(row.bounds(), list)) {
+                    // Cut off at the list edge, it is read in full on the next page
+                    continue;
+                }
+                T parsed = rowParser.apply(row);
+                if (parsed != null && seen.add(keyOf.apply(parsed))) {
+                    sink.accept(parsed);
+                    newRows++;
+                }
+            }
+            if (newRows == 0 || list == null) {
+                break;
+            }
+
+            Object canScrollMore = driver.executeScript("mobile: scrollGesture", Map.of(
+                    "left", list.x, "top", list.y, "width", list.width, "height", list.height,
+                    "direction", "down", "percent", percent));
+            if (Boolean.FALSE.equals(canScrollMore)) {
+                // The last page is already on screen, read it once more for rows that were cut off
+                maxPages = pages + 1;
+            }
+        }
+
+        long millis = PerfMetrics.elapsedMillis(start);
+        PerfMetrics.record("mobile.harvest.ms", millis);
+        LogUtil.info("Harvested " + seen.size() + " row(s) of " + rowId + " from " + pages + " page(s) in " + millis + " ms");
+        return seen.size();
+    }
+
+    private static boolean isInside(Rectangle row, Rectangle list) {
+        return row != null && row.y >= list.y && row.y + row.height <= list.y + list.height;
+    }
+}
@@ -0,0 +1,185 @@
+package automation.utils.mobile;
+
+import automation.utils.PerfMetrics;
+import org.openqa.selenium.Point;
+import org.openqa.selenium.Rectangle;
+import org.openqa.selenium.WebDriver;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+import org.xml.sax.InputSource;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathExpressionException;
+import javax.xml.xpath.XPathFactory;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Snapshot of the screen's UI hierarchy from one page source call, queried locally with XPath instead of one
+ * findElement round trip per lookup
+ */
+public class UiHierarchy {
+    private static final Pattern ANDROID_BOUNDS = Pattern.compile("\\[(-?\\d+),(-?\\d+)]\\[(-?\\d+),(-?\\d+)]");
+
+    private final Document document;
+
+    private UiHierarchy(Document document) {
+        this.document = document;
+    }
+
+    /**
+     * Read the current screen with a single page source command
+     */
+    public static UiHierarchy capture(WebDriver driver) {
+        long start = System.nanoTime();
+        String source = driver.getPageSource();
+        PerfMetrics.record("mobile.page.source.ms", PerfMetrics.elapsedMillis(start));
+        return parse(source);
+    }
+
+    /**
+     * Save the current screen's page source, e.g. as input for {@link LocatorOptimizer}
+     */
+    public static void dump(WebDriver driver, File file) {
+        try {
+            if (file.getParentFile() != null) {
+                file.getParentFile().mkdirs();
+            }
+            Files.write(file.toPath(), driver.getPageSource().getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to write page source to " + file, e);
+        }
+    }
+
+    public static UiHierarchy parse(File file) {
+        try {
+            return parse(new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read page source from " + file, e);
+        }
+    }
+
+    public static UiHierarchy parse(String source) {
+        try {
+            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+            return new UiHierarchy(factory.newDocumentBuilder().parse(new InputSource(new StringReader(source))));
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to parse page source", e);
+        }
+    }
+
+    /**
+     * All nodes matching an XPath expression over the page source
+     */
+    public List<Node> findAll(String xpath) {
+        return select(document, xpath);
+    }
+
+    /**
+     * First node matching the XPath expression, null when there is none
+     */
+    public Node find(String xpath) {
+        List<Node> nodes = findAll(xpath);
+        return nodes.isEmpty() ? null : nodes.get(0);
+    }
+
+    private static List<Node> select(org.w3c.dom.Node context, String xpath) {
+        try {
+            NodeList nodes = (NodeList) XPathFactory.newInstance().newXPath().evaluate(xpath, context, XPathConstants.NODESET);
+            List<Node> result = new ArrayList<>(nodes.getLength());
+            for (int i = 0; i < nodes.getLength(); i++) {
+                if (nodes.item(i) instanceof Element) {
+                    result.add(new Node((Element) nodes.item(i)));
+                }
+            }
+            return result;
+        } catch (XPathExpressionException e) {
+            throw new IllegalArgumentException("Invalid XPath: " + xpath, e);
+        }
+    }
+
+    public static class Node {
+        private final Element element;
+
+        private Node(Element element) {
+            this.element = element;
+        }
+
+        public String attribute(String name) {
+            return element.hasAttribute(name) ? element.getAttribute(name) : null;
+        }
+
+        /**
+         * Displayed text, the Android text attribute or the iOS value/label
+         */
+        public String text() {
+            for (String name : new String[]{"text", "value", "label"}) {
+                String value = attribute(name);
+                if (value != null && !value.isEmpty()) {
+                    return value;
+                }
+            }
+            return "";
+        }
+
+        public String resourceId() {
+            return attribute("resource-id");
+        }
+
+        public boolean isClickable() {
+            return "true".equals(attribute("clickable"));
+        }
+
+        /**
+         * Screen bounds from the Android bounds attribute or the iOS x/y/width/height attributes, null when absent
+         */
+        public Rectangle bounds() {
+            String bounds = attribute("bounds");
+            if (bounds != null) {
+                Matcher matcher = ANDROID_BOUNDS.matcher(bounds);
+                if (matcher.matches()) {
+                    int x1 = Integer.parseInt(matcher.group(1));
+                    int y1 = Integer.parseInt(matcher.group(2));
+                    return new Rectangle(x1, y1, Integer.parseInt(matcher.group(4)) - y1, Integer.parseInt(matcher.group(3)) - x1);
+                }
+            }
+            if (attribute("x") != null && attribute("width") != null) {
+                return new Rectangle(Integer.parseInt(attribute("x")), Integer.parseInt(attribute("y")),
+                        Integer.parseInt(attribute("height")), Integer.parseInt(attribute("width")));
+            }
+            return null;
+        }
+
+        public Point center() {
+            Rectangle bounds = bounds();
+            return bounds == null ? null : new Point(bounds.x + bounds.width / 2, bounds.y + bounds.height / 2);
+        }
+
+        /**
+         * Nodes below this one matching a relative XPath expression, e.g. ".//*[@resource-id='...']"
+         */
+        public List<Node> findAll(String xpath) {
+            return select(element, xpath);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Node && ((Node) other).element == element;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(element);
+        }
+    }
+}
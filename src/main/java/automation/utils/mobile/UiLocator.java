@@ -0,0 +1,143 @@
+package automation.utils.mobile;
+
+import io.appium.java_client.pagefactory.AndroidFindBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Offline evaluation of UiAutomator2 locators (id, accessibility id, UiSelector and XPath) against a {@link UiHierarchy}
+ * dump. Covers the UiSelector methods page objects use: resourceId, resourceIdMatches, text, textContains,
+ * textStartsWith, textMatches, description, descriptionContains, className, clickable, enabled, selected and instance.
+ */
+class UiLocator {
+    private static final Pattern SELECTOR_CALL = Pattern.compile("\\.(\\w+)\\(\\s*(?:\"((?:[^\"\\\\]|\\\\.)*)\"|([^)]*?))\\s*\\)");
+
+    private UiLocator() {
+    }
+
+    /**
+     * Strategy and value of an annotation, e.g. {"id", "com.exness.android.pa:id/priceView"}
+     */
+    static String[] of(AndroidFindBy findBy) {
+        if (!findBy.id().isEmpty()) {
+            return new String[]{"id", findBy.id()};
+        }
+        if (!findBy.accessibility().isEmpty()) {
+            return new String[]{"accessibility", findBy.accessibility()};
+        }
+        if (!findBy.uiAutomator().isEmpty()) {
+            return new String[]{"uiAutomator", findBy.uiAutomator()};
+        }
+        if (!findBy.xpath().isEmpty()) {
+            return new String[]{"xpath", findBy.xpath()};
+        }
+        throw new IllegalArgumentException("Unsupported @AndroidFindBy strategy: " + findBy);
+    }
+
+    static List<UiHierarchy.Node> find(UiHierarchy screen, String strategy, String value) {
+        switch (strategy) {
+            case "id":
+                // UiAutomator2 prefixes ids without a package with the app package
+                return value.contains(":id/") ? screen.findAll("//*[@resource-id=" + literal(value) + "]")
+                        : screen.findAll("//*[substring(@resource-id, string-length(@resource-id) - "
+                        + (value.length() + 3) + ") = " + literal(":id/" + value) + "]");
+            case "accessibility":
+                return screen.findAll("//*[@content-desc=" + literal(value) + "]");
+            case "uiAutomator":
+                return findBySelector(screen, value);
+            case "xpath":
+                return screen.findAll(value);
+            default:
+                throw new IllegalArgumentException("Unsupported locator strategy: " + strategy);
+        }
+    }
+
+    private static List<UiHierarchy.Node> findBySelector(UiHierarchy screen, String selector) {
+        String chain = selector.trim();
+        if (!chain.startsWith("new UiSelector()")) {
+            throw new IllegalArgumentException("Only plain UiSelector chains are supported: " + selector);
+        }
+        chain = chain.substring("new UiSelector()".length());
+
+        List<Predicate<UiHierarchy.Node>> conditions = new ArrayList<>();
+        int instance = -1;
+        Matcher matcher = SELECTOR_CALL.matcher(chain);
+        int position = 0;
+        while (matcher.find() && matcher.start() == position) {
+            position = matcher.end();
+            String method = matcher.group(1);
+            String argument = matcher.group(2) != null ? matcher.group(2).replace("\\\"", "\"") : matcher.group(3).trim();
+            switch (method) {
+                case "resourceId":
+                    conditions.add(node -> argument.equals(node.resourceId()));
+                    break;
+                case "resourceIdMatches":
+                    conditions.add(node -> node.resourceId() != null && node.resourceId().matches(argument));
+                    break;
+                case "text":
+                    conditions.add(node -> argument.equals(node.attribute("text")));
+                    break;
+                case "textContains":
+                    conditions.add(node -> node.attribute("text") != null && node.attribute("text").contains(argument));
+                    break;
+                case "textStartsWith":
+                    conditions.add(node -> node.attribute("text") != null && node.attribute("text").startsWith(argument));
+                    break;
+                case "textMatches":
+                    conditions.add(node -> node.attribute("text") != null && node.attribute("text").matches(argument));
+                    break;
+                case "description":
+                    conditions.add(node -> argument.equals(node.attribute("content-desc")));
+                    break;
+                case "descriptionContains":
+                    conditions.add(node -> node.attribute("content-desc") != null
+                            && node.attribute("content-desc").contains(argument));
+                    break;
+                case "className":
+                    conditions.add(node -> argument.equals(node.attribute("class")));
+                    break;
+                case "clickable":
+                case "enabled":
+                case "selected":
+                    conditions.add(node -> argument.equals(node.attribute(method)));
+                    break;
+                case "instance":
+                    instance = Integer.parseInt(argument);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unsupported UiSelector method '" + method + "' in " + selector);
+            }
+        }
+        if (position != chain.replaceAll(";?\\s*$", "").length()) {
+            throw new IllegalArgumentException("Could not parse UiSelector: " + selector);
+        }
+
+        List<UiHierarchy.Node> matches = new ArrayList<>();
+        for (UiHierarchy.Node node : screen.findAll("//*")) {
+            if (conditions.stream().allMatch(condition -> condition.test(node))) {
+                matches.add(node);
+            }
+        }
+        if (instance >= 0) {
+            return instance < matches.size() ? List.of(matches.get(instance)) : List.of();
+        }
+        return matches;
+    }
+
+    /**
+     * XPath string literal, concat() for values containing both quote types
+     */
+    static String literal(String value) {
+        if (!value.contains("'")) {
+            return "'" + value + "'";
+        }
+        if (!value.contains("\"")) {
+            return "\"" + value + "\"";
+        }
+        return "concat('" + value.replace("'", "', \"'\", '") + "')";
+    }
+}
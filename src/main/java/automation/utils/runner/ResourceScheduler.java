@@ -0,0 +1,207 @@
+package automation.utils.runner;
+
+import automation.utils.ConfigLoader;
+import automation.utils.LogUtil;
+import automation.utils.PerfMetrics;
+import automation.utils.metrics.KeyMetrics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hands out the resources tests run on: a browser slot for web tests (scheduler.browser.slots) and one named device
+ * slot per entry of scheduler.devices for mobile tests. A test holds its slot from setup to teardown, the time spent
+ * waiting for a slot is recorded per resource.
+ */
+public class ResourceScheduler {
+    public static final String BROWSER = "browser";
+
+    private static final ThreadLocal<String> lease = new ThreadLocal<>();
+    private static final ReentrantLock deviceLock = new ReentrantLock();
+    private static final Condition deviceFreed = deviceLock.newCondition();
+    // Pending device requests in arrival order, guarded by deviceLock like the free devices
+    private static final List<DeviceRequest> deviceRequests = new ArrayList<>();
+    private static Semaphore browserSlots;
+    private static Set<String> freeDevices;
+
+    public static boolean isEnabled() {
+        return ConfigLoader.getPropertyAsBoolean("scheduler.enabled", false);
+    }
+
+    /**
+     * Devices tests can be scheduled on, scheduler.devices or the single appium.android.device
+     */
+    public static List<String> getDevices() {
+        List<String> devices = new ArrayList<>();
+        for (String device : ConfigLoader.getProperty("scheduler.devices", "").split(",")) {
+            if (!device.trim().isEmpty()) {
+                devices.add(device.trim());
+            }
+        }
+        if (devices.isEmpty()) {
+            devices.add(ConfigLoader.getProperty("appium.android.device", "Android Device"));
+        }
+        return Collections.unmodifiableList(devices);
+    }
+
+    public static int getBrowserCapacity() {
+        return ConfigLoader.getPropertyAsInt("scheduler.browser.slots",
+                ConfigLoader.getPropertyAsInt("web.pool.max.size", 4));
+    }
+
+    /**
+     * Block until a browser slot is free
+     */
+    public static void acquireBrowser() {
+        long start = System.nanoTime();
+        long startEpoch = System.currentTimeMillis();
+        try {
+            if (!getBrowserSlots().tryAcquire(acquireTimeoutSeconds(), TimeUnit.SECONDS)) {
+                throw new RuntimeException("No browser slot became free within " + acquireTimeoutSeconds() + " s");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for a browser slot", e);
+        }
+        leased(BROWSER, start, startEpoch, KeyMetrics.PLATFORM_WEB);
+    }
+
+    /**
+     * Block until the requested device, or any device when none is requested, is free. Requests are served in arrival
+     * order, a request only waits for earlier requests that want the same device.
+     *
+     * @param device Device name from scheduler.devices, empty for any device
+     * @return Name of the leased device
+     */
+    public static String acquireDevice(String device) {
+        long start = System.nanoTime();
+        long startEpoch = System.currentTimeMillis();
+        Set<String> free = getFreeDevices();
+        if (device != null && !device.isEmpty() && !getDevices().contains(device)) {
+            throw new IllegalArgumentException("Device '" + device + "' is not one of scheduler.devices " + getDevices());
+        }
+        DeviceRequest request = new DeviceRequest(device);
+        long remaining = TimeUnit.SECONDS.toNanos(acquireTimeoutSeconds());
+        String granted;
+        deviceLock.lock();
+        try {
+            deviceRequests.add(request);
+            while ((granted = grantable(request, free)) == null) {
+                if (remaining <= 0) {
+                    throw new RuntimeException("No device became free within " + acquireTimeoutSeconds() + " s");
+                }
+                remaining = deviceFreed.awaitNanos(remaining);
+            }
+            free.remove(granted);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for a device", e);
+        } finally {
+            deviceRequests.remove(request);
+            // A request that gave up may have held back later ones
+            deviceFreed.signalAll();
+            deviceLock.unlock();
+        }
+        leased("device:" + granted, start, startEpoch, KeyMetrics.PLATFORM_ANDROID);
+        return granted;
+    }
+
+    /**
+     * Device the request gets once the free devices are handed to the earlier requests in arrival order, null if none
+     */
+    private static String grantable(DeviceRequest request, Set<String> free) {
+        Set<String> remaining = new LinkedHashSet<>(free);
+        for (DeviceRequest queued : deviceRequests) {
+            String match = queued.match(remaining);
+            if (queued == request) {
+                return match;
+            }
+            remaining.remove(match);
+        }
+        return null;
+    }
+
+    /**
+     * Device leased by the test running on the current thread, null for web tests
+     */
+    public static String currentDevice() {
+        String resource = lease.get();
+        return resource != null && resource.startsWith("device:") ? resource.substring("device:".length()) : null;
+    }
+
+    /**
+     * Give the slot held by the current thread back, no-op when it holds none
+     */
+    public static void release() {
+        String resource = lease.get();
+        if (resource == null) {
+            return;
+        }
+        lease.remove();
+        if (BROWSER.equals(resource)) {
+            getBrowserSlots().release();
+        } else {
+            deviceLock.lock();
+            try {
+                getFreeDevices().add(resource.substring("device:".length()));
+                deviceFreed.signalAll();
+            } finally {
+                deviceLock.unlock();
+            }
+        }
+    }
+
+    private static void leased(String resource, long startNanos, long startEpoch, int platform) {
+        lease.set(resource);
+        long waitMillis = PerfMetrics.elapsedMillis(startNanos);
+        PerfMetrics.record("scheduler.wait." + resource + ".ms", waitMillis);
+        Map<String, Object> details = new LinkedHashMap<>();
+        details.put("resource", resource);
+        KeyMetrics.record("scheduler:wait", null, startEpoch, waitMillis, true, null, details, platform, "beforeMethod");
+        if (waitMillis > 0) {
+            LogUtil.info("Leased " + resource + " after waiting " + waitMillis + " ms");
+        }
+    }
+
+    private static long acquireTimeoutSeconds() {
+        return ConfigLoader.getPropertyAsInt("scheduler.acquire.timeout", 1800);
+    }
+
+    private static synchronized Semaphore getBrowserSlots() {
+        if (browserSlots == null) {
+            browserSlots = new Semaphore(getBrowserCapacity(), true);
+        }
+        return browserSlots;
+    }
+
+    private static synchronized Set<String> getFreeDevices() {
+        if (freeDevices == null) {
+            freeDevices = new LinkedHashSet<>(getDevices());
+        }
+        return freeDevices;
+    }
+
+    private static class DeviceRequest {
+        private final String device;
+
+        private DeviceRequest(String device) {
+            this.device = device;
+        }
+
+        private String match(Set<String> free) {
+            if (device == null || device.isEmpty()) {
+                return free.isEmpty() ? null : free.iterator().next();
+            }
+            return free.contains(device) ? device : null;
+        }
+    }
+}
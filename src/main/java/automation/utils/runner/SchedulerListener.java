@@ -0,0 +1,81 @@
+package automation.utils.runner;
+
+import automation.utils.ConfigLoader;
+import automation.utils.LogUtil;
+import automation.utils.mobile.Mobile;
+import org.testng.IAlterSuiteListener;
+import org.testng.IMethodInstance;
+import org.testng.IMethodInterceptor;
+import org.testng.ITestContext;
+import org.testng.xml.XmlClass;
+import org.testng.xml.XmlSuite;
+import org.testng.xml.XmlTest;
+
+import java.io.File;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sizes TestNG parallelism from the resources tests need: every &lt;test&gt; runs its methods in parallel with as many
+ * threads as its resource has slots (devices for mobile tests, browser slots for web tests), and methods are dispatched
+ * longest first from the duration history so no slot idles at the end of the run.
+ */
+public class SchedulerListener implements IAlterSuiteListener, IMethodInterceptor {
+
+    @Override
+    public void alter(List<XmlSuite> suites) {
+        ConfigLoader.init();
+        if (!ResourceScheduler.isEnabled()) {
+            return;
+        }
+        for (XmlSuite suite : suites) {
+            suite.setParallel(XmlSuite.ParallelMode.TESTS);
+            suite.setThreadCount(Math.max(1, suite.getTests().size()));
+            for (XmlTest test : suite.getTests()) {
+                int slots = isMobileTest(test) ? ResourceScheduler.getDevices().size() : ResourceScheduler.getBrowserCapacity();
+                test.setParallel(XmlSuite.ParallelMode.METHODS);
+                test.setThreadCount(slots);
+                LogUtil.info("Scheduling '" + test.getName() + "' on " + slots + " " + (isMobileTest(test) ? "device" : "browser")
+                        + " slot(s)");
+            }
+        }
+    }
+
+    @Override
+    public List<IMethodInstance> intercept(List<IMethodInstance> methods, ITestContext context) {
+        if (!ResourceScheduler.isEnabled()) {
+            return methods;
+        }
+        Map<String, Double> history = ShardRunner.readHistory(
+                new File(ConfigLoader.getProperty("scheduler.history", "logs/key-metrics.jsonl")));
+        // Unknown tests go first, they may be the longest ones
+        double unknown = Double.MAX_VALUE;
+        List<IMethodInstance> ordered = new ArrayList<>(methods);
+        ordered.sort(Comparator.comparingDouble((IMethodInstance instance) ->
+                history.getOrDefault(ShardRunner.historyKey(instance.getMethod().getRealClass().getName(),
+                        instance.getMethod().getMethodName()), unknown)).reversed());
+        return ordered;
+    }
+
+    private static boolean isMobileTest(XmlTest test) {
+        for (XmlClass xmlClass : test.getXmlClasses()) {
+            try {
+                Class<?> testClass = Class.forName(xmlClass.getName(), false, SchedulerListener.class.getClassLoader());
+                if (testClass.isAnnotationPresent(Mobile.class)) {
+                    return true;
+                }
+                for (Method method : testClass.getMethods()) {
+                    if (method.isAnnotationPresent(Mobile.class)) {
+                        return true;
+                    }
+                }
+            } catch (ClassNotFoundException e) {
+                LogUtil.warn("Test class not found while scheduling: " + xmlClass.getName());
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,428 @@
+package automation.utils.runner;
+
+import automation.utils.LogUtil;
+import automation.utils.mobile.Mobile;
+import automation.utils.metrics.MetricsEvents;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.testng.annotations.Test;
+import org.testng.xml.Parser;
+import org.testng.xml.XmlClass;
+import org.testng.xml.XmlInclude;
+import org.testng.xml.XmlSuite;
+import org.testng.xml.XmlTest;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Properties;
+import java.util.TreeSet;
+
+/**
+ * Splits a TestNG suite into K shards balanced on historical test durations (longest processing time first),
+ * runs every shard in its own JVM and merges the TestNG results and key metrics of all shards.
+ * <p>
+ * Usage: ShardRunner --shards 4 [--suite testng-suites.xml] [--history logs/key-metrics.jsonl]
+ * [--out target/shards] [--granularity class|method] [--default-duration 60000] [--classpath cp] [--dry-run true]
+ * [--forward web.,appium.,...]
+ * <p>
+ * System properties whose name starts with one of the comma separated --forward prefixes (an entry without a trailing
+ * dot matches the whole name) are passed on to every shard JVM. The default covers every namespace of
+ * config.properties, so -D overrides behave the same as in a single JVM run.
+ * <p>
+ * Mobile classes are kept together in one shard because they share the device and the Appium port.
+ */
+public class ShardRunner {
+    private static final String[] RESULT_COUNTERS = {"total", "passed", "failed", "skipped", "ignored"};
+    private static final String DEFAULT_FORWARD_PREFIXES =
+            "env,debug.,log.,screenshot.,metrics.,perf.,scheduler.,typing.,wait.,webdriver.,web.,appium.,mobile.";
+    // Set per shard by the runner
+    private static final List<String> SHARD_PROPERTIES = List.of("metrics.file", "metrics.worker.base");
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            options.put(args[i].replaceFirst("^--", ""), args[i + 1]);
+        }
+        int shardCount = Integer.parseInt(options.getOrDefault("shards", "2"));
+        File outDir = new File(options.getOrDefault("out", "target/shards"));
+        String suitePath = options.getOrDefault("suite", "testng-suites.xml");
+        boolean methodGranularity = "method".equalsIgnoreCase(options.getOrDefault("granularity", "class"));
+
+        Map<String, Double> history = readHistory(new File(options.getOrDefault("history", "logs/key-metrics.jsonl")));
+        double defaultDuration = Double.parseDouble(options.getOrDefault("default-duration", "60000"));
+        XmlSuite suite = new Parser(suitePath).parseToList().get(0);
+
+        List<WorkItem> items = collectItems(suite, history, defaultDuration, methodGranularity);
+        List<Shard> shards = assign(items, shardCount);
+        outDir.mkdirs();
+        for (Shard shard : shards) {
+            File shardDir = new File(outDir, "shard-" + shard.index);
+            shardDir.mkdirs();
+            Files.write(new File(shardDir, "testng-shard.xml").toPath(),
+                    toSuite(suite, shard).toXml().getBytes(StandardCharsets.UTF_8));
+            System.out.printf("Shard %d: %d item(s), predicted %.1f s%n", shard.index, shard.items.size(), shard.load / 1000);
+        }
+        if (Boolean.parseBoolean(options.getOrDefault("dry-run", "false"))) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        List<String> forwarded = forwardedProperties(System.getProperties(),
+                options.getOrDefault("forward", DEFAULT_FORWARD_PREFIXES));
+        List<Process> processes = new ArrayList<>();
+        for (Shard shard : shards) {
+            processes.add(launch(shard, new File(outDir, "shard-" + shard.index),
+                    options.getOrDefault("classpath", System.getProperty("java.class.path")), forwarded));
+        }
+        int failedShards = 0;
+        for (int i = 0; i < processes.size(); i++) {
+            int exitCode = processes.get(i).waitFor();
+            System.out.println("Shard " + shards.get(i).index + " finished with exit code " + exitCode);
+            if (exitCode != 0) {
+                failedShards++;
+            }
+        }
+        System.out.printf("All shards finished in %.1f s%n", (System.nanoTime() - start) / 1e9);
+
+        mergeResults(shards, outDir);
+        mergeMetrics(shards, outDir);
+        System.exit(failedShards == 0 ? 0 : 1);
+    }
+
+    /**
+     * Average duration per test method keyed by {@link #historyKey}, from a key-metrics file (setup + body + teardown)
+     * or from a testng-results.xml of an earlier run
+     */
+    static Map<String, Double> readHistory(File file) {
+        Map<String, double[]> sums = new HashMap<>();
+        if (!file.exists()) {
+            LogUtil.info("No duration history at " + file.getPath() + ", all tests get the default duration");
+            return new HashMap<>();
+        }
+        if (file.getName().endsWith(".xml")) {
+            readResultsHistory(file, sums);
+        } else {
+            readMetricsHistory(file, sums);
+        }
+        Map<String, Double> averages = new HashMap<>();
+        sums.forEach((name, sum) -> averages.put(name, sum[0] / Math.max(1, sum[1])));
+        return averages;
+    }
+
+    private static void readMetricsHistory(File file, Map<String, double[]> sums) {
+        try {
+            MetricsEvents.forEach(file, event -> {
+                String eventName = event.path("eventName").asText();
+                JsonNode testName = event.get("testName");
+                JsonNode testClass = event.get("testClass");
+                if (!eventName.startsWith("test:") || testName == null || testName.isNull()
+                        || testClass == null || testClass.isNull()) {
+                    return;
+                }
+                double[] sum = sums.computeIfAbsent(historyKey(testClass.asText(), testName.asText()), name -> new double[2]);
+                sum[0] += event.get("duration").asDouble();
+                if ("test:body".equals(eventName)) {
+                    sum[1]++;
+                }
+            });
+        } catch (IOException e) {
+            LogUtil.warn("Could not read duration history from " + file.getPath() + ": " + e.getMessage());
+        }
+    }
+
+    private static void readResultsHistory(File file, Map<String, double[]> sums) {
+        try {
+            NodeList methods = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(file)
+                    .getElementsByTagName("test-method");
+            for (int i = 0; i < methods.getLength(); i++) {
+                Element method = (Element) methods.item(i);
+                if ("true".equals(method.getAttribute("is-config")) || method.getAttribute("duration-ms").isEmpty()) {
+                    continue;
+                }
+                String className = ((Element) method.getParentNode()).getAttribute("name");
+                double[] sum = sums.computeIfAbsent(historyKey(className, method.getAttribute("name")), name -> new double[2]);
+                sum[0] += Double.parseDouble(method.getAttribute("duration-ms"));
+                sum[1]++;
+            }
+        } catch (Exception e) {
+            LogUtil.warn("Could not read duration history from " + file.getPath() + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * History key of a test method, methods of the same name in different classes are kept apart
+     */
+    static String historyKey(String className, String methodName) {
+        return className + "#" + methodName;
+    }
+
+    private static List<WorkItem> collectItems(XmlSuite suite, Map<String, Double> history, double defaultDuration,
+                                               boolean methodGranularity) throws ClassNotFoundException {
+        List<WorkItem> items = new ArrayList<>();
+        WorkItem mobileItem = null;
+        for (XmlTest test : suite.getTests()) {
+            for (XmlClass xmlClass : test.getXmlClasses()) {
+                Class<?> testClass = Class.forName(xmlClass.getName(), false, ShardRunner.class.getClassLoader());
+                List<String> methods = testMethods(testClass);
+                double load = 0;
+                for (String method : methods) {
+                    load += history.getOrDefault(historyKey(xmlClass.getName(), method), defaultDuration);
+                }
+                boolean mobile = testClass.isAnnotationPresent(Mobile.class)
+                        || Arrays.stream(testClass.getMethods()).anyMatch(m -> m.isAnnotationPresent(Mobile.class));
+                if (mobile) {
+                    if (mobileItem == null) {
+                        mobileItem = new WorkItem();
+                        items.add(mobileItem);
+                    }
+                    mobileItem.load += load;
+                    mobileItem.entries.add(new Entry(test.getName(), xmlClass.getName(), null));
+                } else if (!methodGranularity) {
+                    WorkItem item = new WorkItem();
+                    item.load = load;
+                    item.entries.add(new Entry(test.getName(), xmlClass.getName(), null));
+                    items.add(item);
+                } else {
+                    for (String method : methods) {
+                        WorkItem item = new WorkItem();
+                        item.load = history.getOrDefault(historyKey(xmlClass.getName(), method), defaultDuration);
+                        item.entries.add(new Entry(test.getName(), xmlClass.getName(), method));
+                        items.add(item);
+                    }
+                }
+            }
+        }
+        return items;
+    }
+
+    private static List<String> testMethods(Class<?> testClass) {
+        List<String> methods = new ArrayList<>();
+        boolean classLevelTest = testClass.isAnnotationPresent(Test.class);
+        for (Method method : testClass.getMethods()) {
+            if (method.isAnnotationPresent(Test.class)
+                    || (classLevelTest && method.getDeclaringClass() == testClass)) {
+                methods.add(method.getName());
+            }
+        }
+        return methods;
+    }
+
+    /**
+     * Longest processing time first: place the longest remaining item on the least loaded shard
+     */
+    static List<Shard> assign(List<WorkItem> items, int shardCount) {
+        PriorityQueue<Shard> byLoad = new PriorityQueue<>(Comparator.comparingDouble((Shard s) -> s.load)
+                .thenComparingInt(s -> s.index));
+        List<Shard> shards = new ArrayList<>();
+        for (int i = 0; i < shardCount; i++) {
+            Shard shard = new Shard(i);
+            shards.add(shard);
+            byLoad.add(shard);
+        }
+        items.sort(Comparator.comparingDouble((WorkItem item) -> item.load).reversed());
+        for (WorkItem item : items) {
+            Shard shard = byLoad.poll();
+            shard.items.add(item);
+            shard.load += item.load;
+            byLoad.add(shard);
+        }
+        shards.removeIf(shard -> shard.items.isEmpty());
+        return shards;
+    }
+
+    private static XmlSuite toSuite(XmlSuite original, Shard shard) {
+        XmlSuite suite = new XmlSuite();
+        suite.setName(original.getName() + " - shard " + shard.index);
+        suite.setParallel(original.getParallel());
+        suite.setThreadCount(original.getThreadCount());
+        suite.setListeners(new ArrayList<>(original.getListeners()));
+        suite.setParameters(new LinkedHashMap<>(original.getParameters()));
+
+        Map<String, XmlTest> tests = new LinkedHashMap<>();
+        Map<String, XmlClass> classes = new HashMap<>();
+        for (WorkItem item : shard.items) {
+            for (Entry entry : item.entries) {
+                XmlTest test = tests.computeIfAbsent(entry.testName, name -> {
+                    XmlTest originalTest = original.getTests().stream()
+                            .filter(t -> t.getName().equals(name)).findFirst().orElseThrow();
+                    XmlTest copy = new XmlTest(suite);
+                    copy.setName(name);
+                    copy.setParameters(new LinkedHashMap<>(originalTest.getLocalParameters()));
+                    originalTest.getIncludedGroups().forEach(copy::addIncludedGroup);
+                    originalTest.getExcludedGroups().forEach(copy::addExcludedGroup);
+                    return copy;
+                });
+                XmlClass xmlClass = classes.computeIfAbsent(entry.testName + "#" + entry.className, key -> {
+                    XmlClass created = new XmlClass(entry.className, false);
+                    test.getXmlClasses().add(created);
+                    return created;
+                });
+                if (entry.method != null) {
+                    xmlClass.getIncludedMethods().add(new XmlInclude(entry.method));
+                }
+            }
+        }
+        return suite;
+    }
+
+    /**
+     * -D arguments for the system properties matching the forward prefixes, except the ones set per shard
+     */
+    static List<String> forwardedProperties(Properties properties, String prefixes) {
+        List<String> patterns = new ArrayList<>();
+        for (String prefix : prefixes.split(",")) {
+            if (!prefix.isBlank()) {
+                patterns.add(prefix.trim());
+            }
+        }
+        List<String> arguments = new ArrayList<>();
+        for (String name : new TreeSet<>(properties.stringPropertyNames())) {
+            boolean matches = patterns.stream().anyMatch(pattern ->
+                    pattern.endsWith(".") ? name.startsWith(pattern) : name.equals(pattern));
+            if (matches && !SHARD_PROPERTIES.contains(name)) {
+                arguments.add("-D" + name + "=" + properties.getProperty(name));
+            }
+        }
+        return arguments;
+    }
+
+    private static Process launch(Shard shard, File shardDir, String classpath, List<String> forwarded)
+            throws Exception {
+        List<String> command = new ArrayList<>();
+        command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+        command.add("-cp");
+        command.add(classpath);
+        command.add("-Dmetrics.file=" + new File(shardDir, "key-metrics.jsonl").getPath());
+        // Keep worker ids unique across shards so timelines and analyses of the merged metrics stay meaningful
+        command.add("-Dmetrics.worker.base=" + shard.index * 100);
+        command.addAll(forwarded);
+        command.add("org.testng.TestNG");
+        command.add("-d");
+        command.add(shardDir.getPath());
+        command.add(new File(shardDir, "testng-shard.xml").getPath());
+        return new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(new File(shardDir, "output.log"))
+                .start();
+    }
+
+    static void mergeResults(List<Shard> shards, File outDir) throws Exception {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        Document merged = factory.newDocumentBuilder().newDocument();
+        Element root = merged.createElement("testng-results");
+        merged.appendChild(root);
+        Map<String, Integer> counters = new LinkedHashMap<>();
+        for (Shard shard : shards) {
+            File results = new File(outDir, "shard-" + shard.index + "/testng-results.xml");
+            if (!results.exists()) {
+                System.out.println("No results for shard " + shard.index + ", see " + results.getParent() + "/output.log");
+                continue;
+            }
+            Element shardRoot = factory.newDocumentBuilder().parse(results).getDocumentElement();
+            for (String counter : RESULT_COUNTERS) {
+                String value = shardRoot.getAttribute(counter);
+                if (!value.isEmpty()) {
+                    counters.merge(counter, Integer.parseInt(value), Integer::sum);
+                }
+            }
+            NodeList children = shardRoot.getChildNodes();
+            for (int i = 0; i < children.getLength(); i++) {
+                Node child = children.item(i);
+                if (child.getNodeType() == Node.ELEMENT_NODE) {
+                    root.appendChild(merged.importNode(child, true));
+                }
+            }
+        }
+        counters.forEach((counter, value) -> root.setAttribute(counter, String.valueOf(value)));
+
+        Transformer transformer = TransformerFactory.newInstance().newTransformer();
+        transformer.setOutputProperty(OutputKeys.INDENT, "yes");
+        File mergedFile = new File(outDir, "testng-results.xml");
+        transformer.transform(new DOMSource(merged), new StreamResult(mergedFile));
+        System.out.println("Merged results " + counters + " written to " + mergedFile.getPath());
+    }
+
+    static void mergeMetrics(List<Shard> shards, File outDir) throws Exception {
+        File merged = new File(outDir, "key-metrics.jsonl");
+        Files.deleteIfExists(merged.toPath());
+        for (Shard shard : shards) {
+            File metrics = new File(outDir, "shard-" + shard.index + "/key-metrics.jsonl");
+            if (metrics.exists()) {
+                Files.write(merged.toPath(), Files.readAllBytes(metrics.toPath()),
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            }
+        }
+        System.out.println("Merged key metrics written to " + merged.getPath());
+    }
+
+    static class WorkItem {
+        private final List<Entry> entries = new ArrayList<>();
+        private double load;
+
+        WorkItem() {
+        }
+
+        WorkItem(double load) {
+            this.load = load;
+        }
+
+        double getLoad() {
+            return load;
+        }
+    }
+
+    static class Shard {
+        private final int index;
+        private final List<WorkItem> items = new ArrayList<>();
+        private double load;
+
+        Shard(int index) {
+            this.index = index;
+        }
+
+        int getIndex() {
+            return index;
+        }
+
+        List<WorkItem> getItems() {
+            return items;
+        }
+
+        double getLoad() {
+            return load;
+        }
+    }
+
+    private static class Entry {
+        private final String testName;
+        private final String className;
+        private final String method;
+
+        private Entry(String testName, String className, String method) {
+            this.testName = testName;
+            this.className = className;
+            this.method = method;
+        }
+    }
+}
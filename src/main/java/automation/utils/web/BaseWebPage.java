@@ -1,15 +1,24 @@
 package automation.utils.web;
 
 import automation.utils.ConfigLoader;
+import automation.utils.Element;
 import automation.utils.LogUtil;
+import automation.utils.PerfMetrics;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.openqa.selenium.*;
 import org.openqa.selenium.interactions.Actions;
 import org.openqa.selenium.support.PageFactory;
+import org.openqa.selenium.support.pagefactory.Annotations;
 import org.openqa.selenium.support.ui.WebDriverWait;
 
+import java.lang.reflect.Field;
 import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Base Page class that provides common functionality for all web page objects
@@ -22,6 +31,7 @@ public class BaseWebPage {
     protected static final Logger LOGGER = LogManager.getLogger(BaseWebPage.class);
     protected static final String LOADING_BAR_XPATH = "//div[(contains(@class, 'loading-bar') and @role='progressbar') or contains(@class, 'spinner')]";
     protected static final String LOADING_SPINNER_XPATH = "//div[(contains(@class, 'spinner') or contains(@class, 'loader'))]";
+    private static final Map<String, By> fieldLocators = new ConcurrentHashMap<>();
 
     public BaseWebPage(WebDriver driver) {
         this.driver = driver;
@@ -29,11 +39,117 @@ public class BaseWebPage {
                 Integer.parseInt(ConfigLoader.getProperty("web.timeout.explicit"))));
         this.js = (JavascriptExecutor) driver;
         this.actions = new Actions(driver);
-        PageFactory.initElements(driver, this);
+        // Keeps the @FindBy locators so observer waits can query elements that are not attached yet
+        PageFactory.initElements(new LocatorAwareFieldDecorator(driver), this);
     }
 
     public void waitForPageToLoad() {
         LogUtil.info("Waiting for page to load completely");
         wait.until(driver -> js.executeScript("return document.readyState").equals("complete"));
+        PageTimings.capture(driver, getClass().getSimpleName());
     }
-}
\ No newline at end of file
+
+    /**
+     * Click an element that leads to another page and wait until that page replaced the current one
+     *
+     * @param element     Element to click
+     * @param description Element description for logging
+     */
+    protected void clickAndWaitForNavigation(WebElement element, String description) {
+        PageTransition transition = PageTransition.begin(driver);
+        Element.click(driver, element, description);
+        transition.await(ConfigLoader.getPropertyAsInt("web.page.load.timeout", 60) * 1000L);
+    }
+
+    /**
+     * Read the state of several @FindBy fields of this page in one round trip,
+     * waiting up to the explicit timeout for fields that are not attached yet
+     *
+     * @param fieldNames Names of the @FindBy fields to read
+     * @return Element states keyed by field name
+     */
+    protected Map<String, DomReader.ElementState> readFields(String... fieldNames) {
+        Map<String, By> locators = new LinkedHashMap<>();
+        for (String fieldName : fieldNames) {
+            locators.put(fieldName, locatorOf(fieldName));
+        }
+        long timeoutMillis = ConfigLoader.getPropertyAsInt("web.timeout.explicit", 10) * 1000L;
+        return DomReader.read(driver, locators, timeoutMillis);
+    }
+
+    /**
+     * Fill several @FindBy fields of this page. In the default script mode all fields are set in one round trip,
+     * fields listed as needing keystrokes (and every field in keys mode) are typed through WebDriver.
+     *
+     * @param fieldValues     Values keyed by field name, option visible text for selects
+     * @param keystrokeFields Fields that must receive real key events
+     */
+    protected void fillFields(Map<String, String> fieldValues, String... keystrokeFields) {
+        boolean scriptMode = ConfigLoader.getProperty("web.form.fill.mode", "script").equalsIgnoreCase("script");
+        List<String> typedFields = Arrays.asList(keystrokeFields);
+        long start = System.nanoTime();
+
+        Map<By, String> scripted = new LinkedHashMap<>();
+        fieldValues.forEach((fieldName, value) -> {
+            if (scriptMode && !typedFields.contains(fieldName)) {
+                scripted.put(locatorOf(fieldName), value);
+                return;
+            }
+            WebElement element = elementOf(fieldName);
+            if ("select".equalsIgnoreCase(element.getTagName())) {
+                Element.select(element, value);
+            } else {
+                Element.sendKeys(driver, element, value, fieldName);
+            }
+        });
+        if (!scripted.isEmpty()) {
+            FormFiller.fill(driver, scripted);
+        }
+
+        long fillMillis = PerfMetrics.elapsedMillis(start);
+        PerfMetrics.record("web.form.fill.ms", fillMillis);
+        LogUtil.info("Filled " + fieldValues.size() + " field(s) on " + getClass().getSimpleName() + " in "
+                + fillMillis + " ms (" + (scriptMode ? "script" : "keys") + " mode)");
+    }
+
+    /**
+     * Element proxy of a @FindBy field of this page
+     *
+     * @param fieldName Field name
+     * @return The initialized field value
+     */
+    protected WebElement elementOf(String fieldName) {
+        for (Class<?> type = getClass(); type != null; type = type.getSuperclass()) {
+            try {
+                Field field = type.getDeclaredField(fieldName);
+                field.setAccessible(true);
+                return (WebElement) field.get(this);
+            } catch (NoSuchFieldException e) {
+                // Keep looking in the superclass
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException("Cannot access field '" + fieldName + "'", e);
+            }
+        }
+        throw new IllegalArgumentException("No field '" + fieldName + "' on page " + getClass().getSimpleName());
+    }
+
+    /**
+     * Locator declared on a @FindBy field of this page
+     *
+     * @param fieldName Field name
+     * @return Locator built from the field annotations
+     */
+    protected By locatorOf(String fieldName) {
+        return fieldLocators.computeIfAbsent(getClass().getName() + "#" + fieldName, key -> {
+            for (Class<?> type = getClass(); type != null; type = type.getSuperclass()) {
+                try {
+                    Field field = type.getDeclaredField(fieldName);
+                    return new Annotations(field).buildBy();
+                } catch (NoSuchFieldException e) {
+                    // Keep looking in the superclass
+                }
+            }
+            throw new IllegalArgumentException("No field '" + fieldName + "' on page " + getClass().getSimpleName());
+        });
+    }
+}
@@ -0,0 +1,165 @@
+package automation.utils.web;
+
+import automation.utils.PerfMetrics;
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads text, visibility, value and attributes of many elements with a single executeScript call
+ */
+public class DomReader {
+
+    /**
+     * JS helper resolving a [using, value] pair produced by {@link #toScriptLocator(By)}
+     */
+    static final String FIND_FUNCTION =
+            "var find = function (using, value) {" +
+            "  switch (using) {" +
+            "    case 'xpath': return document.evaluate(value, document, null, XPathResult.FIRST_ORDERED_NODE_TYPE, null).singleNodeValue;" +
+            "    case 'id': return document.getElementById(value);" +
+            "    case 'name': return document.getElementsByName(value)[0] || null;" +
+            "    case 'className': return document.getElementsByClassName(value)[0] || null;" +
+            "    case 'tagName': return document.getElementsByTagName(value)[0] || null;" +
+            "    default: return document.querySelector(value);" +
+            "  }" +
+            "};";
+
+    private static final String READ_SCRIPT =
+            "var locators = arguments[0], attributes = arguments[1], timeout = arguments[2];" +
+            "var done = arguments[arguments.length - 1];" +
+            FIND_FUNCTION +
+            "var displayed = function (el) {" +
+            "  var style = window.getComputedStyle(el);" +
+            "  if (style.visibility === 'hidden' || style.display === 'none' || parseFloat(style.opacity) === 0) { return false; }" +
+            "  var rect = el.getBoundingClientRect();" +
+            "  return rect.width > 0 && rect.height > 0;" +
+            "};" +
+            "var allFound = function () {" +
+            "  return locators.every(function (l) { return find(l[0], l[1]) !== null; });" +
+            "};" +
+            "var read = function () {" +
+            "  return locators.map(function (l) {" +
+            "    var el = find(l[0], l[1]);" +
+            "    if (!el) { return { found: false }; }" +
+            "    var attrs = {};" +
+            "    attributes.forEach(function (name) { attrs[name] = el.getAttribute(name); });" +
+            "    return { found: true, displayed: displayed(el), text: (el.innerText || el.textContent || '').trim()," +
+            "             value: el.value === undefined ? null : String(el.value), attributes: attrs };" +
+            "  });" +
+            "};" +
+            "if (timeout <= 0 || allFound()) { done(read()); return; }" +
+            "var finished = false;" +
+            "var observer = new MutationObserver(function () {" +
+            "  if (!finished && allFound()) { finished = true; observer.disconnect(); clearTimeout(timer); done(read()); }" +
+            "});" +
+            "observer.observe(document.documentElement, { childList: true, subtree: true });" +
+            "var timer = setTimeout(function () { finished = true; observer.disconnect(); done(read()); }, timeout);";
+
+    /**
+     * Read the state of several elements in one round trip
+     *
+     * @param driver        Browser driver
+     * @param locators      Locators keyed by a name used in the result
+     * @param timeoutMillis How long to wait for missing elements to be attached, 0 to read immediately
+     * @param attributes    Extra attributes to read from every element
+     * @return Element states keyed by the locator names, in the same order
+     */
+    @SuppressWarnings("unchecked")
+    public static Map<String, ElementState> read(WebDriver driver, Map<String, By> locators, long timeoutMillis,
+                                                 String... attributes) {
+        List<List<String>> scriptLocators = new ArrayList<>();
+        for (By by : locators.values()) {
+            scriptLocators.add(toScriptLocator(by));
+        }
+
+        long start = System.nanoTime();
+        List<Object> results = (List<Object>) ((JavascriptExecutor) driver).executeAsyncScript(
+                READ_SCRIPT, scriptLocators, List.of(attributes), timeoutMillis);
+        PerfMetrics.record("web.dom.batch.read.ms", PerfMetrics.elapsedMillis(start));
+
+        Map<String, ElementState> states = new LinkedHashMap<>();
+        int index = 0;
+        for (String name : locators.keySet()) {
+            states.put(name, new ElementState((Map<String, Object>) results.get(index++)));
+        }
+        return states;
+    }
+
+    static List<String> toScriptLocator(By by) {
+        // By.toString() is "By.<strategy>: <value>" for all built-in locators
+        String description = by.toString();
+        int separator = description.indexOf(": ");
+        if (!description.startsWith("By.") || separator < 0) {
+            throw new IllegalArgumentException("Unsupported locator for batched read: " + description);
+        }
+        String using = description.substring(3, separator);
+        String value = description.substring(separator + 2);
+        switch (using) {
+            case "xpath":
+            case "id":
+            case "name":
+            case "className":
+            case "tagName":
+                return List.of(using, value);
+            case "cssSelector":
+            case "css selector":
+                return List.of("css", value);
+            default:
+                throw new IllegalArgumentException("Unsupported locator for batched read: " + description);
+        }
+    }
+
+    public static class ElementState {
+        private final boolean found;
+        private final boolean displayed;
+        private final String text;
+        private final String value;
+        private final Map<String, String> attributes;
+
+        @SuppressWarnings("unchecked")
+        private ElementState(Map<String, Object> raw) {
+            this.found = Boolean.TRUE.equals(raw.get("found"));
+            this.displayed = Boolean.TRUE.equals(raw.get("displayed"));
+            this.text = raw.get("text") != null ? raw.get("text").toString() : "";
+            this.value = raw.get("value") != null ? raw.get("value").toString() : null;
+            Map<String, String> attrs = new LinkedHashMap<>();
+            if (raw.get("attributes") instanceof Map) {
+                ((Map<String, Object>) raw.get("attributes")).forEach((name, attr) ->
+                        attrs.put(name, attr != null ? attr.toString() : null));
+            }
+            this.attributes = Collections.unmodifiableMap(attrs);
+        }
+
+        public boolean isFound() {
+            return found;
+        }
+
+        public boolean isDisplayed() {
+            return displayed;
+        }
+
+        public String getText() {
+            return text;
+        }
+
+        public String getValue() {
+            return value;
+        }
+
+        public String getAttribute(String name) {
+            return attributes.get(name);
+        }
+
+        @Override
+        public String toString() {
+            return "ElementState{found=" + found + ", displayed=" + displayed + ", text='" + text + "'}";
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package automation.utils.web;
+
+import automation.utils.ConfigLoader;
+import automation.utils.LogUtil;
+import automation.utils.PerfMetrics;
+import io.github.bonigarcia.wdm.WebDriverManager;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Machine-wide cache of browser driver binaries keyed by the installed browser version.
+ * Resolution happens once per machine, is shared between JVMs through a file lock and works fully offline
+ * once the cache is populated.
+ */
+public class DriverBinaryCache {
+    private static final Map<String, String> resolvedInJvm = new ConcurrentHashMap<>();
+    private static final Pattern VERSION_PATTERN = Pattern.compile("(\\d+(\\.\\d+)+)");
+    private static final String INDEX_FILE = "drivers.properties";
+    private static final String UNKNOWN = "unknown";
+
+    /**
+     * Make the driver binary for a browser available to Selenium through its webdriver.*.driver system property
+     *
+     * @param browser Browser name (chrome, firefox, edge)
+     */
+    public static void setup(String browser) {
+        String driverProperty = getDriverProperty(browser);
+        if (driverProperty == null || resolvedInJvm.containsKey(browser)) {
+            return;
+        }
+
+        synchronized (DriverBinaryCache.class) {
+            if (resolvedInJvm.containsKey(browser)) {
+                return;
+            }
+            long start = System.nanoTime();
+            String driverPath = resolve(browser);
+            System.setProperty(driverProperty, driverPath);
+            resolvedInJvm.put(browser, driverPath);
+
+            long resolveMillis = PerfMetrics.elapsedMillis(start);
+            PerfMetrics.record("web.driver.resolve.ms", resolveMillis);
+            LogUtil.info("Driver binary for '" + browser + "' resolved in " + resolveMillis + " ms: " + driverPath);
+        }
+    }
+
+    private static String resolve(String browser) {
+        String configuredPath = ConfigLoader.getProperty("webdriver." + browser + ".driver");
+        if (configuredPath != null && !configuredPath.isEmpty() && new File(configuredPath).canExecute()) {
+            return configuredPath;
+        }
+
+        String browserVersion = detectBrowserVersion(browser);
+        Path cacheDir = getCacheDir();
+        String key = browser + "." + browserVersion;
+
+        String cachedPath = lookup(cacheDir, key, browser, browserVersion);
+        if (cachedPath != null) {
+            return cachedPath;
+        }
+        if (UNKNOWN.equals(browserVersion)) {
+            // Without a version the cache cannot tell whether a binary matches the browser, resolve without caching
+            if (ConfigLoader.getPropertyAsBoolean("webdriver.offline", false)) {
+                throw new IllegalStateException("Could not detect the " + browser + " version and webdriver.offline=true,"
+                        + " set web.browser.version or webdriver." + browser + ".driver");
+            }
+            LogUtil.warn("Resolving driver for " + browser + " without caching it, the browser version is unknown");
+            WebDriverManager manager = WebDriverManager.getInstance(browser);
+            manager.setup();
+            return manager.getDownloadedDriverPath();
+        }
+
+        try {
+            Files.createDirectories(cacheDir);
+            try (FileChannel channel = FileChannel.open(cacheDir.resolve(browser + ".lock"),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                 FileLock ignored = channel.lock()) {
+                // Another JVM may have resolved the driver while we were waiting for the lock
+                cachedPath = lookup(cacheDir, key, browser, browserVersion);
+                if (cachedPath != null) {
+                    return cachedPath;
+                }
+                if (ConfigLoader.getPropertyAsBoolean("webdriver.offline", false)) {
+                    throw new IllegalStateException("No cached driver for " + browser + " " + browserVersion
+                            + " in " + cacheDir + " and webdriver.offline=true");
+                }
+                return download(cacheDir, key, browser, browserVersion);
+            }
+        } catch (IOException e) {
+            LogUtil.error("Failed to access driver cache " + cacheDir + ": " + e.getMessage());
+            throw new RuntimeException("Failed to access driver cache", e);
+        }
+    }
+
+    private static String lookup(Path cacheDir, String key, String browser, String browserVersion) {
+        if (UNKNOWN.equals(browserVersion)) {
+            return null;
+        }
+        Properties index = readIndex(cacheDir);
+        String path = index.getProperty(key);
+        if (path == null) {
+            // Drivers are compatible within a major version, reuse one resolved for another build
+            String majorPrefix = browser + "." + browserVersion.split("\\.")[0] + ".";
+            for (String name : index.stringPropertyNames()) {
+                if (name.startsWith(majorPrefix) && new File(index.getProperty(name)).canExecute()) {
+                    path = index.getProperty(name);
+                    break;
+                }
+            }
+        }
+        return path != null && new File(path).canExecute() ? path : null;
+    }
+
+    private static String download(Path cacheDir, String key, String browser, String browserVersion) throws IOException {
+        LogUtil.info("Resolving driver for " + browser + " " + browserVersion + " through WebDriverManager");
+        WebDriverManager manager = WebDriverManager.getInstance(browser);
+        manager.browserVersion(browserVersion);
+        manager.setup();
+
+        Path downloaded = Paths.get(manager.getDownloadedDriverPath());
+        Path target = cacheDir.resolve(browser).resolve(browserVersion).resolve(downloaded.getFileName());
+        Files.createDirectories(target.getParent());
+        Files.copy(downloaded, target, StandardCopyOption.REPLACE_EXISTING);
+        target.toFile().setExecutable(true);
+
+        Properties index = readIndex(cacheDir);
+        index.setProperty(key, target.toAbsolutePath().toString());
+        writeIndex(cacheDir, index);
+        return target.toAbsolutePath().toString();
+    }
+
+    private static Properties readIndex(Path cacheDir) {
+        Properties index = new Properties();
+        Path indexFile = cacheDir.resolve(INDEX_FILE);
+        if (Files.exists(indexFile)) {
+            try (InputStream input = Files.newInputStream(indexFile)) {
+                index.load(input);
+            } catch (IOException e) {
+                LogUtil.warn("Could not read driver cache index " + indexFile + ": " + e.getMessage());
+            }
+        }
+        return index;
+    }
+
+    private static void writeIndex(Path cacheDir, Properties index) throws IOException {
+        // Write to a temp file and move it so readers without the lock never see a partial index
+        Path tempFile = Files.createTempFile(cacheDir, INDEX_FILE, ".tmp");
+        try (OutputStream output = Files.newOutputStream(tempFile)) {
+            index.store(output, "Driver binaries keyed by browser and browser version");
+        }
+        Files.move(tempFile, cacheDir.resolve(INDEX_FILE), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static String detectBrowserVersion(String browser) {
+        String configured = ConfigLoader.getProperty("web.browser.version");
+        if (configured != null && !configured.isEmpty()) {
+            return configured;
+        }
+
+        for (List<String> command : getVersionCommands(browser)) {
+            File outputFile = null;
+            try {
+                // Output goes to a file so a hanging browser binary cannot block past the timeout
+                outputFile = File.createTempFile("browser-version", ".txt");
+                Process process = new ProcessBuilder(command).redirectErrorStream(true)
+                        .redirectOutput(outputFile).start();
+                if (!process.waitFor(5, TimeUnit.SECONDS)) {
+                    process.destroyForcibly();
+                    continue;
+                }
+                Matcher matcher = VERSION_PATTERN.matcher(Files.readString(outputFile.toPath(), StandardCharsets.UTF_8));
+                if (process.exitValue() == 0 && matcher.find()) {
+                    return matcher.group(1);
+                }
+            } catch (IOException e) {
+                // Browser binary not found under this name, try the next one
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } finally {
+                if (outputFile != null) {
+                    outputFile.delete();
+                }
+            }
+        }
+        LogUtil.warn("Could not detect installed " + browser + " version");
+        return UNKNOWN;
+    }
+
+    private static List<List<String>> getVersionCommands(String browser) {
+        String os = System.getProperty("os.name").toLowerCase();
+        if (os.contains("win")) {
+            switch (browser) {
+                case "chrome":
+                    return List.of(List.of("reg", "query", "HKEY_CURRENT_USER\\Software\\Google\\Chrome\\BLBeacon", "/v", "version"));
+                case "edge":
+                    return List.of(List.of("reg", "query", "HKEY_CURRENT_USER\\Software\\Microsoft\\Edge\\BLBeacon", "/v", "version"));
+                case "firefox":
+                    return List.of(List.of("reg", "query", "HKEY_LOCAL_MACHINE\\Software\\Mozilla\\Mozilla Firefox", "/v", "CurrentVersion"));
+                default:
+                    return List.of();
+            }
+        }
+        if (os.contains("mac")) {
+            switch (browser) {
+                case "chrome":
+                    return List.of(List.of("/Applications/Google Chrome.app/Contents/MacOS/Google Chrome", "--version"));
+                case "edge":
+                    return List.of(List.of("/Applications/Microsoft Edge.app/Contents/MacOS/Microsoft Edge", "--version"));
+                case "firefox":
+                    return List.of(List.of("/Applications/Firefox.app/Contents/MacOS/firefox", "--version"));
+                default:
+                    return List.of();
+            }
+        }
+        switch (browser) {
+            case "chrome":
+                return List.of(List.of("google-chrome", "--version"), List.of("google-chrome-stable", "--version"),
+                        List.of("chromium", "--version"), List.of("chromium-browser", "--version"));
+            case "edge":
+                return List.of(List.of("microsoft-edge", "--version"), List.of("microsoft-edge-stable", "--version"));
+            case "firefox":
+                return List.of(List.of("firefox", "--version"));
+            default:
+                return List.of();
+        }
+    }
+
+    private static String getDriverProperty(String browser) {
+        switch (browser) {
+            case "chrome":
+                return "webdriver.chrome.driver";
+            case "firefox":
+                return "webdriver.gecko.driver";
+            case "edge":
+                return "webdriver.edge.driver";
+            default:
+                return null;
+        }
+    }
+
+    private static Path getCacheDir() {
+        String configured = ConfigLoader.getProperty("webdriver.cache.dir");
+        if (configured != null && !configured.isEmpty()) {
+            return Paths.get(configured);
+        }
+        return Paths.get(System.getProperty("user.home"), ".cbtw", "drivers");
+    }
+}
@@ -0,0 +1,60 @@
+package automation.utils.web;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sets text inputs, textareas and selects of a form in one script call, firing the input and change events
+ * a user would trigger
+ */
+public class FormFiller {
+
+    private static final String FILL_SCRIPT =
+            "var fields = arguments[0], failures = [];" +
+            DomReader.FIND_FUNCTION +
+            "fields.forEach(function (field) {" +
+            "  var el = find(field[0], field[1]), text = field[2];" +
+            "  if (!el) { failures.push(field[1] + ': not found'); return; }" +
+            "  var tag = el.tagName.toLowerCase();" +
+            "  el.focus();" +
+            "  if (tag === 'select') {" +
+            "    var option = Array.prototype.find.call(el.options, function (o) { return o.text.trim() === text; });" +
+            "    if (!option) { failures.push(field[1] + ': no option \"' + text + '\"'); return; }" +
+            "    option.selected = true;" +
+            "  } else {" +
+            "    var proto = tag === 'textarea' ? HTMLTextAreaElement.prototype : HTMLInputElement.prototype;" +
+            // The native setter keeps frameworks that track the value property (React, Vue) in sync
+            "    Object.getOwnPropertyDescriptor(proto, 'value').set.call(el, text);" +
+            "  }" +
+            "  el.dispatchEvent(new Event('input', { bubbles: true }));" +
+            "  el.dispatchEvent(new Event('change', { bubbles: true }));" +
+            "  el.blur();" +
+            "});" +
+            "return failures;";
+
+    /**
+     * Fill several fields in one round trip
+     *
+     * @param driver Browser driver
+     * @param values Values keyed by field locator, option visible text for selects
+     */
+    @SuppressWarnings("unchecked")
+    public static void fill(WebDriver driver, Map<By, String> values) {
+        List<List<String>> fields = new ArrayList<>();
+        values.forEach((by, text) -> {
+            List<String> field = new ArrayList<>(DomReader.toScriptLocator(by));
+            field.add(text != null ? text : "");
+            fields.add(field);
+        });
+
+        List<Object> failures = (List<Object>) ((JavascriptExecutor) driver).executeScript(FILL_SCRIPT, fields);
+        if (failures != null && !failures.isEmpty()) {
+            throw new RuntimeException("Failed to fill form fields: " + failures);
+        }
+    }
+}
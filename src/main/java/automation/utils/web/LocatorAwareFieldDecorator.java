@@ -0,0 +1,63 @@
+package automation.utils.web;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.SearchContext;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.WrapsElement;
+import org.openqa.selenium.interactions.Locatable;
+import org.openqa.selenium.support.pagefactory.Annotations;
+import org.openqa.selenium.support.pagefactory.DefaultElementLocatorFactory;
+import org.openqa.selenium.support.pagefactory.DefaultFieldDecorator;
+import org.openqa.selenium.support.pagefactory.ElementLocator;
+import org.openqa.selenium.support.pagefactory.internal.LocatingElementHandler;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+
+/**
+ * PageFactory decorator creating the same lazy element proxies as the default one, but remembering the locator of
+ * every @FindBy element so in-page scripts can query it themselves instead of resolving the proxy first
+ */
+public class LocatorAwareFieldDecorator extends DefaultFieldDecorator {
+
+    public LocatorAwareFieldDecorator(SearchContext searchContext) {
+        super(new DefaultElementLocatorFactory(searchContext));
+    }
+
+    @Override
+    public Object decorate(ClassLoader loader, Field field) {
+        if (!WebElement.class.equals(field.getType())) {
+            return super.decorate(loader, field);
+        }
+        ElementLocator locator = factory.createLocator(field);
+        if (locator == null) {
+            return null;
+        }
+        InvocationHandler handler = new LocatedElementHandler(locator, new Annotations(field).buildBy());
+        return Proxy.newProxyInstance(loader, new Class[]{WebElement.class, WrapsElement.class, Locatable.class}, handler);
+    }
+
+    /**
+     * Locator of a page object element created by this decorator
+     *
+     * @param element Element, possibly a page object proxy
+     * @return The @FindBy locator, null for elements that are not page object proxies
+     */
+    public static By locatorOf(WebElement element) {
+        if (element == null || !Proxy.isProxyClass(element.getClass())) {
+            return null;
+        }
+        InvocationHandler handler = Proxy.getInvocationHandler(element);
+        return handler instanceof LocatedElementHandler ? ((LocatedElementHandler) handler).by : null;
+    }
+
+    private static class LocatedElementHandler extends LocatingElementHandler {
+        private final By by;
+
+        private LocatedElementHandler(ElementLocator locator, By by) {
+            super(locator);
+            this.by = by;
+        }
+    }
+}
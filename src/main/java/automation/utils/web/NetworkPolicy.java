@@ -0,0 +1,175 @@
+package automation.utils.web;
+
+import automation.utils.ConfigLoader;
+import automation.utils.LogUtil;
+import automation.utils.PerfMetrics;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.devtools.Command;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.Event;
+import org.openqa.selenium.devtools.HasDevTools;
+import org.openqa.selenium.json.Json;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Blocks or stubs resource types and URL patterns through CDP request interception (Chromium browsers only)
+ * and counts what was intercepted and transferred for every test
+ */
+public class NetworkPolicy {
+    private static final Map<WebDriver, NetworkPolicy> policies = new ConcurrentHashMap<>();
+
+    private final DevTools devTools;
+    private final List<Pattern> stubPatterns;
+    private final Map<String, AtomicLong> blockedByType = new ConcurrentHashMap<>();
+    private final AtomicLong blockedRequests = new AtomicLong();
+    private final AtomicLong stubbedRequests = new AtomicLong();
+    private final AtomicLong transferredBytes = new AtomicLong();
+
+    private NetworkPolicy(DevTools devTools, List<Pattern> stubPatterns) {
+        this.devTools = devTools;
+        this.stubPatterns = stubPatterns;
+    }
+
+    /**
+     * Install the configured policy on a freshly created driver
+     *
+     * @param driver Driver to install the policy on
+     */
+    public static void apply(WebDriver driver) {
+        if (!ConfigLoader.getPropertyAsBoolean("web.network.policy.enabled", false)) {
+            return;
+        }
+        if (!(driver instanceof HasDevTools)) {
+            LogUtil.warn("Network policy requires a Chromium based browser, skipping it");
+            return;
+        }
+
+        List<String> blockTypes = getList("web.network.block.types");
+        List<String> blockUrls = getList("web.network.block.urls");
+        List<String> stubUrls = getList("web.network.stub.urls");
+
+        List<Map<String, Object>> patterns = new ArrayList<>();
+        for (String type : blockTypes) {
+            patterns.add(Map.of("urlPattern", "*", "resourceType", type, "requestStage", "Request"));
+        }
+        for (String url : blockUrls) {
+            patterns.add(Map.of("urlPattern", url, "requestStage", "Request"));
+        }
+        List<Pattern> stubPatterns = new ArrayList<>();
+        for (String url : stubUrls) {
+            patterns.add(Map.of("urlPattern", url, "requestStage", "Request"));
+            stubPatterns.add(toRegex(url));
+        }
+        if (patterns.isEmpty()) {
+            return;
+        }
+
+        DevTools devTools = ((HasDevTools) driver).getDevTools();
+        devTools.createSessionIfThereIsNotOne();
+        NetworkPolicy policy = new NetworkPolicy(devTools, stubPatterns);
+
+        devTools.addListener(new Event<Map<String, Object>>("Fetch.requestPaused", input -> input.read(Json.MAP_TYPE)),
+                policy::onRequestPaused);
+        devTools.addListener(new Event<Map<String, Object>>("Network.loadingFinished", input -> input.read(Json.MAP_TYPE)),
+                policy::onLoadingFinished);
+        devTools.send(new Command<Void>("Network.enable", Map.of()));
+        devTools.send(new Command<Void>("Fetch.enable", Map.of("patterns", patterns)));
+
+        policies.put(driver, policy);
+        LogUtil.info("Network policy installed: block types " + blockTypes + ", block urls " + blockUrls
+                + ", stub urls " + stubUrls);
+    }
+
+    /**
+     * Record what the policy of this driver intercepted since the previous call
+     *
+     * @param driver Driver used by the finished test
+     */
+    public static void recordTestStats(WebDriver driver) {
+        NetworkPolicy policy = driver != null ? policies.get(driver) : null;
+        if (policy == null) {
+            return;
+        }
+        long blocked = policy.blockedRequests.getAndSet(0);
+        long stubbed = policy.stubbedRequests.getAndSet(0);
+        long transferredKb = policy.transferredBytes.getAndSet(0) / 1024;
+        StringBuilder byType = new StringBuilder();
+        policy.blockedByType.forEach((type, count) -> byType.append(type).append('=').append(count.getAndSet(0)).append(' '));
+
+        PerfMetrics.record("web.network.blocked.requests", blocked);
+        PerfMetrics.record("web.network.stubbed.requests", stubbed);
+        PerfMetrics.record("web.network.transferred.kb", transferredKb);
+        LogUtil.info("Network policy: blocked " + blocked + " request(s) [" + byType.toString().trim() + "], stubbed "
+                + stubbed + ", transferred " + transferredKb + " KB");
+    }
+
+    public static void detach(WebDriver driver) {
+        policies.remove(driver);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void onRequestPaused(Map<String, Object> params) {
+        String requestId = (String) params.get("requestId");
+        Map<String, Object> request = (Map<String, Object>) params.get("request");
+        String url = request != null ? (String) request.get("url") : "";
+        try {
+            if (matchesStub(url)) {
+                stubbedRequests.incrementAndGet();
+                devTools.send(new Command<Void>("Fetch.fulfillRequest",
+                        Map.of("requestId", requestId, "responseCode", 200, "body", "")));
+            } else {
+                blockedRequests.incrementAndGet();
+                String type = String.valueOf(params.get("resourceType"));
+                blockedByType.computeIfAbsent(type, key -> new AtomicLong()).incrementAndGet();
+                devTools.send(new Command<Void>("Fetch.failRequest",
+                        Map.of("requestId", requestId, "errorReason", "BlockedByClient")));
+            }
+        } catch (Exception e) {
+            LogUtil.debug("Failed to handle intercepted request " + url + ": " + e.getMessage());
+        }
+    }
+
+    private void onLoadingFinished(Map<String, Object> params) {
+        Object length = params.get("encodedDataLength");
+        if (length instanceof Number) {
+            transferredBytes.addAndGet(((Number) length).longValue());
+        }
+    }
+
+    private boolean matchesStub(String url) {
+        for (Pattern pattern : stubPatterns) {
+            if (pattern.matcher(url).matches()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Pattern toRegex(String glob) {
+        StringBuilder regex = new StringBuilder();
+        for (String part : glob.split("\\*", -1)) {
+            if (regex.length() > 0) {
+                regex.append(".*");
+            }
+            regex.append(Pattern.quote(part));
+        }
+        return Pattern.compile(regex.toString());
+    }
+
+    private static List<String> getList(String key) {
+        List<String> values = new ArrayList<>();
+        String value = ConfigLoader.getProperty(key, "");
+        for (String item : value.split(",")) {
+            if (!item.trim().isEmpty()) {
+                values.add(item.trim());
+            }
+        }
+        return values;
+    }
+}
@@ -0,0 +1,116 @@
+package automation.utils.web;
+
+import automation.utils.ConfigLoader;
+import org.openqa.selenium.By;
+import org.openqa.selenium.HasCapabilities;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import java.util.List;
+
+/**
+ * Event-driven element waits for browsers. A MutationObserver/IntersectionObserver helper is installed once per page
+ * and a single async script call resolves as soon as the condition is met, instead of polling over WebDriver.
+ */
+public class ObserverWait {
+    public static final String VISIBLE = "visible";
+    public static final String CLICKABLE = "clickable";
+
+    private static final String WAIT_SCRIPT =
+            "var done = arguments[arguments.length - 1];" +
+            "if (!window.__cbtwWait) {" +
+            "  window.__cbtwWait = function (el, locator, condition, timeout, callback) {" +
+            DomReader.FIND_FUNCTION +
+            "    var visible = function (node) {" +
+            "      var style = window.getComputedStyle(node);" +
+            "      if (style.visibility === 'hidden' || style.display === 'none' || parseFloat(style.opacity) === 0) { return false; }" +
+            "      var rect = node.getBoundingClientRect();" +
+            "      return rect.width > 0 && rect.height > 0;" +
+            "    };" +
+            "    var observed = null, intersections;" +
+            // A located element is queried again on every change, so it may be inserted or replaced while waiting
+            "    var check = function () {" +
+            "      var node = locator ? find(locator[0], locator[1]) : el;" +
+            "      if (!node) { return false; }" +
+            "      if (!locator && !node.isConnected) { return 'stale'; }" +
+            "      if (intersections && observed !== node) { intersections.observe(node); observed = node; }" +
+            "      if (!visible(node)) { return false; }" +
+            "      return condition !== 'clickable' || !node.disabled;" +
+            "    };" +
+            "    if (window.IntersectionObserver) { intersections = new IntersectionObserver(function () { onChange(); }); }" +
+            "    var finished = false, mutations, timer;" +
+            "    var finish = function (value) {" +
+            "      if (finished) { return; }" +
+            "      finished = true;" +
+            "      if (mutations) { mutations.disconnect(); }" +
+            "      if (intersections) { intersections.disconnect(); }" +
+            "      window.removeEventListener('transitionend', onChange, true);" +
+            "      window.removeEventListener('animationend', onChange, true);" +
+            "      clearTimeout(timer);" +
+            "      callback(value);" +
+            "    };" +
+            "    var onChange = function () { var value = check(); if (value) { finish(value); } };" +
+            "    var result = check();" +
+            "    if (result) { finish(result); return; }" +
+            "    mutations = new MutationObserver(onChange);" +
+            "    mutations.observe(document.documentElement, { attributes: true, childList: true, subtree: true, characterData: true });" +
+            "    window.addEventListener('transitionend', onChange, true);" +
+            "    window.addEventListener('animationend', onChange, true);" +
+            "    timer = setTimeout(function () { finish(false); }, timeout);" +
+            "  };" +
+            "}" +
+            "window.__cbtwWait(arguments[0], arguments[1], arguments[2], arguments[3], done);";
+
+    /**
+     * Observer waits need a browser JS context, native mobile sessions keep using polling waits
+     */
+    public static boolean isSupported(WebDriver driver) {
+        if (!ConfigLoader.getProperty("web.wait.mode", "observer").equalsIgnoreCase("observer")
+                || !(driver instanceof JavascriptExecutor) || !(driver instanceof HasCapabilities)) {
+            return false;
+        }
+        String browserName = ((HasCapabilities) driver).getCapabilities().getBrowserName();
+        return browserName != null && !browserName.isEmpty();
+    }
+
+    /**
+     * Block until the element meets the condition or the timeout expires, using one WebDriver command. Page object
+     * elements are resolved by their locator inside the page, so the wait also covers elements not attached yet.
+     *
+     * @param driver        Browser driver
+     * @param element       Element to wait for
+     * @param condition     {@link #VISIBLE} or {@link #CLICKABLE}
+     * @param timeoutMillis Time to wait
+     * @return true if the condition was met, false on timeout
+     * @throws StaleElementReferenceException if an element without a locator was detached while waiting
+     */
+    public static boolean waitFor(WebDriver driver, WebElement element, String condition, long timeoutMillis) {
+        long scriptTimeoutMillis = ConfigLoader.getPropertyAsInt("web.script.timeout", 60) * 1000L;
+        long observerTimeout = Math.min(timeoutMillis, scriptTimeoutMillis - 1000);
+        List<String> locator = scriptLocatorOf(element);
+        Object result = ((JavascriptExecutor) driver).executeAsyncScript(WAIT_SCRIPT,
+                locator != null ? null : element, locator, condition, observerTimeout);
+        if ("stale".equals(result)) {
+            throw new StaleElementReferenceException("Element was detached while waiting to be " + condition);
+        }
+        return Boolean.TRUE.equals(result);
+    }
+
+    /**
+     * Script locator of a page object element, null for elements found directly or with a locator the script cannot
+     * resolve (chained or ByAll locators)
+     */
+    private static List<String> scriptLocatorOf(WebElement element) {
+        By by = LocatorAwareFieldDecorator.locatorOf(element);
+        if (by == null) {
+            return null;
+        }
+        try {
+            return DomReader.toScriptLocator(by);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
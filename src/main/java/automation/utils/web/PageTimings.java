@@ -0,0 +1,146 @@
+package automation.utils.web;
+
+import automation.utils.ConfigLoader;
+import automation.utils.LogUtil;
+import automation.utils.PerfMetrics;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.testng.ITestResult;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects the Navigation Timing, paint and Resource Timing data the browser computed for a page load,
+ * attaches it to the current test and step and checks it against perf.budget.&lt;Page&gt;.&lt;metric&gt; budgets
+ */
+public class PageTimings {
+    private static final String[] METRICS = {"ttfb", "domContentLoaded", "load", "fcp", "lcp", "transferKb", "requests"};
+    private static final ThreadLocal<List<String>> budgetViolations = ThreadLocal.withInitial(ArrayList::new);
+
+    private static final String TIMINGS_SCRIPT =
+            "var done = arguments[arguments.length - 1];" +
+            "var deadline = Date.now() + arguments[0];" +
+            // Page objects may wait for the same document several times, time each document once
+            "if (window.__cbtwTimed) { done(null); return; }" +
+            "var collect = function () {" +
+            "  var result = {};" +
+            "  var nav = performance.getEntriesByType('navigation')[0];" +
+            "  if (nav) {" +
+            "    result.ttfb = nav.responseStart - nav.startTime;" +
+            "    result.domContentLoaded = nav.domContentLoadedEventEnd - nav.startTime;" +
+            "    if (nav.loadEventEnd > 0) { result.load = nav.loadEventEnd - nav.startTime; }" +
+            "  }" +
+            // Without the load time the document is timed again by the next wait
+            "  if (result.load !== undefined || !nav) { window.__cbtwTimed = true; }" +
+            "  var paint = performance.getEntriesByName('first-contentful-paint')[0];" +
+            "  if (paint) { result.fcp = paint.startTime; }" +
+            "  var resources = performance.getEntriesByType('resource');" +
+            "  var bytes = nav ? (nav.transferSize || 0) : 0;" +
+            "  resources.forEach(function (r) { bytes += r.transferSize || 0; });" +
+            "  result.transferKb = Math.round(bytes / 1024);" +
+            "  result.requests = resources.length + (nav ? 1 : 0);" +
+            "  try {" +
+            "    new PerformanceObserver(function (list) {" +
+            "      var entries = list.getEntries();" +
+            "      if (entries.length) { result.lcp = entries[entries.length - 1].startTime; }" +
+            "    }).observe({ type: 'largest-contentful-paint', buffered: true });" +
+            "  } catch (e) {}" +
+            // Buffered LCP entries are delivered asynchronously
+            "  setTimeout(function () { done(result); }, 50);" +
+            "};" +
+            // readyState turns complete before the load handlers ran, loadEventEnd is only set after them
+            "var collected = false;" +
+            "var attempt = function () {" +
+            "  if (collected) { return; }" +
+            "  var nav = performance.getEntriesByType('navigation')[0];" +
+            "  if (!nav || nav.loadEventEnd > 0 || Date.now() >= deadline) { collected = true; collect(); return; }" +
+            "  setTimeout(attempt, 50);" +
+            "};" +
+            "window.addEventListener('load', function () { setTimeout(attempt, 0); });" +
+            "attempt();";
+
+    /**
+     * Capture the timings of the document currently loaded, once per document
+     *
+     * @param driver   Browser driver
+     * @param pageName Page object name used for metric names and budgets
+     */
+    @SuppressWarnings("unchecked")
+    public static void capture(WebDriver driver, String pageName) {
+        if (!ConfigLoader.getPropertyAsBoolean("web.page.timings.enabled", false)) {
+            return;
+        }
+        long loadWaitMillis = Math.min(ConfigLoader.getPropertyAsInt("web.page.timings.load.wait.ms", 10000),
+                ConfigLoader.getPropertyAsInt("web.script.timeout", 60) * 1000L - 1000);
+        Map<String, Object> raw;
+        try {
+            raw = (Map<String, Object>) ((JavascriptExecutor) driver).executeAsyncScript(TIMINGS_SCRIPT, loadWaitMillis);
+        } catch (Exception e) {
+            LogUtil.debug("Could not read page timings for " + pageName + ": " + e.getMessage());
+            return;
+        }
+        if (raw == null) {
+            return;
+        }
+
+        Map<String, Long> timings = new LinkedHashMap<>();
+        for (String metric : METRICS) {
+            if (raw.get(metric) instanceof Number) {
+                timings.put(metric, Math.round(((Number) raw.get(metric)).doubleValue()));
+            }
+        }
+        timings.forEach((metric, value) -> PerfMetrics.record("page." + pageName + "." + metric, value));
+
+        String step = LogUtil.getCurrentStep();
+        LogUtil.info("Page timings for " + pageName + (step != null ? " [step: " + step + "]" : "") + ": " + timings);
+        checkBudgets(pageName, step, timings);
+    }
+
+    /**
+     * Fail the finished test if any page it visited exceeded its budget and perf.budget.fail.test is set
+     *
+     * @param result Result of the finished test
+     */
+    public static void applyBudgets(ITestResult result) {
+        List<String> violations = budgetViolations.get();
+        budgetViolations.remove();
+        if (violations.isEmpty() || !ConfigLoader.getPropertyAsBoolean("perf.budget.fail.test", false)) {
+            return;
+        }
+        if (result.getStatus() == ITestResult.SUCCESS) {
+            result.setStatus(ITestResult.FAILURE);
+            result.setThrowable(new AssertionError("Performance budgets exceeded: " + violations));
+        }
+    }
+
+    private static void checkBudgets(String pageName, String step, Map<String, Long> timings) {
+        for (String metric : METRICS) {
+            String key = "perf.budget." + pageName + "." + metric;
+            String budget = ConfigLoader.getProperty(key, "").trim();
+            if (budget.isEmpty()) {
+                continue;
+            }
+            long limit;
+            try {
+                limit = Long.parseLong(budget);
+            } catch (NumberFormatException e) {
+                LogUtil.error("Property '" + key + "' value '" + budget + "' is not a valid integer, budget not checked");
+                continue;
+            }
+            Long value = timings.get(metric);
+            if (value == null) {
+                LogUtil.warn("No " + metric + " timing for " + pageName + ", its budget was not checked");
+                continue;
+            }
+            if (value > limit) {
+                String violation = pageName + "." + metric + "=" + value + " > " + limit
+                        + (step != null ? " (step: " + step + ")" : "");
+                budgetViolations.get().add(violation);
+                LogUtil.fail("Performance budget exceeded: " + violation);
+            }
+        }
+    }
+}
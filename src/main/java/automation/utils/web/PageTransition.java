@@ -0,0 +1,168 @@
+package automation.utils.web;
+
+import automation.utils.ConfigLoader;
+import automation.utils.LogUtil;
+import automation.utils.PerfMetrics;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.devtools.Command;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.Event;
+import org.openqa.selenium.devtools.HasDevTools;
+import org.openqa.selenium.json.Json;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Waits for the page change caused by an action. The current document is tagged before the action and the wait
+ * resolves once a different document is complete, or, for SPA transitions that keep the document, once the network
+ * has been idle (tracked through CDP on Chromium browsers, URL change otherwise).
+ */
+public class PageTransition {
+    private static final Map<WebDriver, NetworkTracker> trackers = new ConcurrentHashMap<>();
+    private static final String TAG_SCRIPT = "window.__cbtwDocId = arguments[0]; return location.href;";
+    private static final String STATE_SCRIPT = "return [window.__cbtwDocId || null, document.readyState, location.href];";
+
+    private final WebDriver driver;
+    private final String documentId;
+    private final String startUrl;
+    private final NetworkTracker tracker;
+    private final long requestsAtStart;
+
+    private PageTransition(WebDriver driver, String documentId, String startUrl, NetworkTracker tracker) {
+        this.driver = driver;
+        this.documentId = documentId;
+        this.startUrl = startUrl;
+        this.tracker = tracker;
+        this.requestsAtStart = tracker != null ? tracker.requestCount.get() : 0;
+    }
+
+    /**
+     * Tag the current document, call this right before the action that changes the page
+     *
+     * @param driver Browser driver
+     * @return Transition to await after the action
+     */
+    public static PageTransition begin(WebDriver driver) {
+        String documentId = UUID.randomUUID().toString();
+        String startUrl = (String) ((JavascriptExecutor) driver).executeScript(TAG_SCRIPT, documentId);
+        return new PageTransition(driver, documentId, startUrl, trackerFor(driver));
+    }
+
+    /**
+     * Block until a new document is complete or an in-document transition settled
+     *
+     * @param timeoutMillis Time to wait
+     * @throws TimeoutException if the page did not change within the timeout
+     */
+    public void await(long timeoutMillis) {
+        long idleMillis = ConfigLoader.getPropertyAsInt("web.transition.network.idle.ms", 500);
+        long start = System.nanoTime();
+        long deadline = start + timeoutMillis * 1_000_000;
+        while (true) {
+            String resolvedBy = check(idleMillis);
+            if (resolvedBy != null) {
+                long transitionMillis = PerfMetrics.elapsedMillis(start);
+                PerfMetrics.record("web.transition.ms", transitionMillis);
+                LogUtil.info("Page transition settled (" + resolvedBy + ") in " + transitionMillis + " ms");
+                return;
+            }
+            if (System.nanoTime() > deadline) {
+                throw new TimeoutException("Page did not change within " + timeoutMillis + " ms from " + startUrl);
+            }
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while waiting for page transition", e);
+            }
+        }
+    }
+
+    /**
+     * Stop tracking a driver that is being quit
+     */
+    public static void detach(WebDriver driver) {
+        trackers.remove(driver);
+    }
+
+    @SuppressWarnings("unchecked")
+    private String check(long idleMillis) {
+        List<Object> state;
+        try {
+            state = (List<Object>) ((JavascriptExecutor) driver).executeScript(STATE_SCRIPT);
+        } catch (WebDriverException e) {
+            // The old document is being torn down, try again on the next poll
+            return null;
+        }
+        boolean sameDocument = documentId.equals(state.get(0));
+        boolean complete = "complete".equals(state.get(1));
+        boolean urlChanged = !String.valueOf(startUrl).equals(state.get(2));
+        if (!sameDocument) {
+            return complete ? "new document" : null;
+        }
+        if (tracker != null) {
+            boolean activity = urlChanged || tracker.requestCount.get() > requestsAtStart;
+            return activity && tracker.isIdle(idleMillis) ? "network idle" : null;
+        }
+        return urlChanged && complete ? "url change" : null;
+    }
+
+    private static NetworkTracker trackerFor(WebDriver driver) {
+        if (!(driver instanceof HasDevTools)) {
+            return null;
+        }
+        return trackers.computeIfAbsent(driver, key -> {
+            try {
+                DevTools devTools = ((HasDevTools) driver).getDevTools();
+                devTools.createSessionIfThereIsNotOne();
+                NetworkTracker tracker = new NetworkTracker();
+                devTools.addListener(new Event<Map<String, Object>>("Network.requestWillBeSent",
+                        input -> input.read(Json.MAP_TYPE)), tracker::onRequest);
+                devTools.addListener(new Event<Map<String, Object>>("Network.loadingFinished",
+                        input -> input.read(Json.MAP_TYPE)), tracker::onDone);
+                devTools.addListener(new Event<Map<String, Object>>("Network.loadingFailed",
+                        input -> input.read(Json.MAP_TYPE)), tracker::onDone);
+                devTools.send(new Command<Void>("Network.enable", Map.of()));
+                return tracker;
+            } catch (Exception e) {
+                LogUtil.debug("Network idle tracking unavailable: " + e.getMessage());
+                return null;
+            }
+        });
+    }
+
+    private static class NetworkTracker {
+        private final Set<String> inflight = ConcurrentHashMap.newKeySet();
+        private final AtomicLong requestCount = new AtomicLong();
+        private final AtomicLong lastActivity = new AtomicLong(System.nanoTime());
+
+        private void onRequest(Map<String, Object> params) {
+            // Long-lived connections never finish and would keep the page busy forever
+            Object type = params.get("type");
+            if ("WebSocket".equals(type) || "EventSource".equals(type)) {
+                return;
+            }
+            inflight.add(String.valueOf(params.get("requestId")));
+            requestCount.incrementAndGet();
+            lastActivity.set(System.nanoTime());
+        }
+
+        private void onDone(Map<String, Object> params) {
+            if (inflight.remove(String.valueOf(params.get("requestId")))) {
+                lastActivity.set(System.nanoTime());
+            }
+        }
+
+        private boolean isIdle(long idleMillis) {
+            return inflight.isEmpty() && PerfMetrics.elapsedMillis(lastActivity.get()) >= idleMillis;
+        }
+    }
+}
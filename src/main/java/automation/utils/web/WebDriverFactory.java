@@ -1,11 +1,12 @@
 package automation.utils.web;
 
 import java.time.Duration;
-import java.util.HashMap;
-import java.util.Map;
 
 import automation.utils.ConfigLoader;
 import automation.utils.LogUtil;
+import automation.utils.PerfMetrics;
+import automation.utils.WaitUtil;
+import automation.utils.metrics.CommandMetrics;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.chrome.ChromeDriver;
 import org.openqa.selenium.chrome.ChromeOptions;
@@ -21,18 +22,34 @@ import io.github.bonigarcia.wdm.WebDriverManager;
  * Factory class for creating WebDriver instances
  */
 public class WebDriverFactory {
-    private static Map<String, WebDriver> drivers = new HashMap<>();
 
+    /**
+     * Returns the driver owned by the calling thread, taking one from the pool if needed
+     */
     public static WebDriver getDriver() {
-        String browser = ConfigLoader.getProperty("web.browser", "chrome").toLowerCase();
-        if (drivers.containsKey(browser)) {
-            return drivers.get(browser);
-        }
+        return WebDriverPool.acquire();
+    }
 
-        WebDriver driver = createDriver(browser);
-        drivers.put(browser, driver);
-        configureDriver(driver);
+    /**
+     * Hands the calling thread's driver back to the pool
+     */
+    public static void releaseDriver() {
+        WebDriverPool.release();
+    }
 
+    public static void prewarm(int count) {
+        WebDriverPool.prewarm(count);
+    }
+
+    static WebDriver newDriver(String browser) {
+        long start = System.nanoTime();
+        WebDriver driver = CommandMetrics.instrument(createDriver(browser));
+        configureDriver(driver);
+        NetworkPolicy.apply(driver);
+        WebSessionReset.track(driver);
+        long startupMillis = PerfMetrics.elapsedMillis(start);
+        PerfMetrics.record("web.driver.startup.ms", startupMillis);
+        LogUtil.info("WebDriver for '" + browser + "' started in " + startupMillis + " ms");
         return driver;
     }
 
@@ -43,7 +60,7 @@ public class WebDriverFactory {
 
         switch (browser.toLowerCase()) {
             case "chrome":
-                WebDriverManager.chromedriver().setup();
+                DriverBinaryCache.setup("chrome");
                 ChromeOptions chromeOptions = new ChromeOptions();
                 if (headless) {
                     chromeOptions.addArguments("--headless=new");
@@ -53,7 +70,7 @@ public class WebDriverFactory {
                 return new ChromeDriver(chromeOptions);
 
             case "firefox":
-                WebDriverManager.firefoxdriver().setup();
+                DriverBinaryCache.setup("firefox");
                 FirefoxOptions firefoxOptions = new FirefoxOptions();
                 if (headless) {
                     firefoxOptions.addArguments("--headless");
@@ -61,7 +78,7 @@ public class WebDriverFactory {
                 return new FirefoxDriver(firefoxOptions);
 
             case "edge":
-                WebDriverManager.edgedriver().setup();
+                DriverBinaryCache.setup("edge");
                 EdgeOptions edgeOptions = new EdgeOptions();
                 if (headless) {
                     edgeOptions.addArguments("--headless");
@@ -75,7 +92,7 @@ public class WebDriverFactory {
 
             default:
                 LogUtil.warn("Browser '" + browser + "' not supported. Defaulting to Chrome");
-                WebDriverManager.chromedriver().setup();
+                DriverBinaryCache.setup("chrome");
                 ChromeOptions defaultOptions = new ChromeOptions();
                 if (headless) {
                     defaultOptions.addArguments("--headless=new");
@@ -89,23 +106,16 @@ public class WebDriverFactory {
     private static void configureDriver(WebDriver driver) {
         // Set timeouts
         int pageLoadTimeout = ConfigLoader.getPropertyAsInt("web.page.load.timeout", 60);
-        int implicitWait = ConfigLoader.getPropertyAsInt("web.implicit.wait", 10);
+        int implicitWait = WaitUtil.isImplicitWaitZero() ? 0 : ConfigLoader.getPropertyAsInt("web.implicit.wait", 10);
+        int scriptTimeout = ConfigLoader.getPropertyAsInt("web.script.timeout", 60);
 
         driver.manage().timeouts().pageLoadTimeout(Duration.ofSeconds(pageLoadTimeout));
         driver.manage().timeouts().implicitlyWait(Duration.ofSeconds(implicitWait));
+        driver.manage().timeouts().scriptTimeout(Duration.ofSeconds(scriptTimeout));
         driver.manage().window().maximize();
     }
 
     public static void quitAllDrivers() {
-        for (WebDriver driver : drivers.values()) {
-            try {
-                if (driver != null) {
-                    driver.quit();
-                }
-            } catch (Exception e) {
-                LogUtil.error("Error quitting WebDriver: " + e.getMessage());
-            }
-        }
-        drivers.clear();
+        WebDriverPool.shutdown();
     }
-}
\ No newline at end of file
+}
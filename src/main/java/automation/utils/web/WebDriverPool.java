@@ -0,0 +1,248 @@
+package automation.utils.web;
+
+import automation.utils.ConfigLoader;
+import automation.utils.LogUtil;
+import automation.utils.PerfMetrics;
+import org.openqa.selenium.WebDriver;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool of browser sessions. Every worker thread owns at most one driver at a time,
+ * idle drivers are reset and handed back to the pool after each test and can be pre-spawned in the background.
+ */
+public class WebDriverPool {
+    private static final BlockingQueue<WebDriver> idleDrivers = new LinkedBlockingQueue<>();
+    private static final Set<WebDriver> allDrivers = ConcurrentHashMap.newKeySet();
+    private static final Map<WebDriver, AtomicInteger> useCounts = new ConcurrentHashMap<>();
+    private static final ThreadLocal<WebDriver> threadDriver = new ThreadLocal<>();
+    private static final AtomicInteger reservedSlots = new AtomicInteger();
+    private static final AtomicInteger pendingDrivers = new AtomicInteger();
+    // Bumped by shutdown, a warm-up finishing after it quits its driver instead of pooling it
+    private static final AtomicInteger generation = new AtomicInteger();
+    private static ExecutorService backgroundExecutor;
+
+    public static void prewarm(int count) {
+        prewarm(count, generation.get());
+    }
+
+    private static synchronized void prewarm(int count, int poolGeneration) {
+        if (count <= 0 || generation.get() != poolGeneration) {
+            return;
+        }
+
+        String browser = getBrowser();
+        int started = 0;
+        for (int i = 0; i < count && reserveSlot(); i++) {
+            pendingDrivers.incrementAndGet();
+            getBackgroundExecutor().submit(() -> {
+                try {
+                    WebDriver driver = WebDriverFactory.newDriver(browser);
+                    if (generation.get() != poolGeneration) {
+                        driver.quit();
+                        return;
+                    }
+                    allDrivers.add(driver);
+                    idleDrivers.offer(driver);
+                } catch (Exception e) {
+                    reservedSlots.decrementAndGet();
+                    LogUtil.warn("Failed to pre-warm WebDriver: " + e.getMessage());
+                } finally {
+                    pendingDrivers.decrementAndGet();
+                }
+            });
+            started++;
+        }
+        LogUtil.info("Pre-warming " + started + " '" + browser + "' browser session(s) in the background");
+    }
+
+    public static WebDriver acquire() {
+        WebDriver driver = threadDriver.get();
+        if (driver != null) {
+            return driver;
+        }
+
+        long start = System.nanoTime();
+        long creationMillis = 0;
+        long deadline = start + TimeUnit.SECONDS.toNanos(ConfigLoader.getPropertyAsInt("web.pool.acquire.timeout", 120));
+        try {
+            while (driver == null) {
+                driver = idleDrivers.poll();
+                if (driver != null) {
+                    break;
+                }
+                // A warm-up or reset that is already running is always cheaper to wait for than a fresh launch
+                if (pendingDrivers.get() == 0 && reserveSlot()) {
+                    long creationStart = System.nanoTime();
+                    driver = createReserved();
+                    creationMillis = PerfMetrics.elapsedMillis(creationStart);
+                    break;
+                }
+                if (System.nanoTime() > deadline) {
+                    throw new RuntimeException("No WebDriver became available in the pool within "
+                            + ConfigLoader.getPropertyAsInt("web.pool.acquire.timeout", 120) + " seconds");
+                }
+                driver = idleDrivers.poll(200, TimeUnit.MILLISECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for a pooled WebDriver", e);
+        }
+
+        long waitMillis = PerfMetrics.elapsedMillis(start) - creationMillis;
+        PerfMetrics.record("web.pool.wait.ms", waitMillis);
+        LogUtil.info("Acquired WebDriver from pool after waiting " + waitMillis + " ms ("
+                + idleDrivers.size() + " idle, " + allDrivers.size() + " total)");
+        threadDriver.set(driver);
+        return driver;
+    }
+
+    public static void release() {
+        WebDriver driver = threadDriver.get();
+        if (driver == null) {
+            return;
+        }
+        threadDriver.remove();
+        if (!allDrivers.contains(driver)) {
+            return;
+        }
+
+        int useCount = useCounts.computeIfAbsent(driver, key -> new AtomicInteger()).incrementAndGet();
+        String mode = WebSessionReset.getMode();
+        if ("none".equals(mode)) {
+            idleDrivers.offer(driver);
+            return;
+        }
+        // Reset runs in the background so the finished test does not pay for it
+        int poolGeneration = generation.get();
+        pendingDrivers.incrementAndGet();
+        getBackgroundExecutor().submit(() -> {
+            try {
+                boolean reusable = "reset".equals(mode)
+                        && !WebSessionReset.shouldRecycle(driver, useCount)
+                        && WebSessionReset.reset(driver);
+                if (reusable) {
+                    idleDrivers.offer(driver);
+                } else {
+                    discard(driver);
+                    prewarm(1, poolGeneration);
+                }
+            } finally {
+                pendingDrivers.decrementAndGet();
+            }
+        });
+    }
+
+    public static void discard(WebDriver driver) {
+        if (driver == null) {
+            return;
+        }
+        if (driver.equals(threadDriver.get())) {
+            threadDriver.remove();
+        }
+        idleDrivers.remove(driver);
+        useCounts.remove(driver);
+        NetworkPolicy.detach(driver);
+        PageTransition.detach(driver);
+        WebSessionReset.detach(driver);
+        if (allDrivers.remove(driver)) {
+            reservedSlots.decrementAndGet();
+        }
+        try {
+            driver.quit();
+        } catch (Exception e) {
+            LogUtil.error("Error quitting WebDriver: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Quit every pooled driver. Warm-ups and resets still running are waited for (up to web.pool.acquire.timeout) so
+     * no browser is launched after the others were quit.
+     */
+    public static void shutdown() {
+        ExecutorService executor;
+        synchronized (WebDriverPool.class) {
+            generation.incrementAndGet();
+            executor = backgroundExecutor;
+            backgroundExecutor = null;
+        }
+        if (executor != null) {
+            executor.shutdown();
+            try {
+                if (!executor.awaitTermination(ConfigLoader.getPropertyAsInt("web.pool.acquire.timeout", 120), TimeUnit.SECONDS)) {
+                    LogUtil.warn(pendingDrivers.get() + " WebDriver warm-up(s) or reset(s) still running at shutdown, cancelling");
+                    executor.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                executor.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        }
+        for (WebDriver driver : allDrivers) {
+            NetworkPolicy.detach(driver);
+            PageTransition.detach(driver);
+            WebSessionReset.detach(driver);
+            try {
+                driver.quit();
+            } catch (Exception e) {
+                LogUtil.error("Error quitting WebDriver: " + e.getMessage());
+            }
+        }
+        allDrivers.clear();
+        idleDrivers.clear();
+        useCounts.clear();
+        reservedSlots.set(0);
+        threadDriver.remove();
+    }
+
+    private static synchronized ExecutorService getBackgroundExecutor() {
+        if (backgroundExecutor == null) {
+            backgroundExecutor = Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "webdriver-pool");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return backgroundExecutor;
+    }
+
+    private static WebDriver createReserved() {
+        try {
+            WebDriver driver = WebDriverFactory.newDriver(getBrowser());
+            allDrivers.add(driver);
+            return driver;
+        } catch (RuntimeException e) {
+            reservedSlots.decrementAndGet();
+            throw e;
+        }
+    }
+
+    private static boolean reserveSlot() {
+        int max = getMaxSize();
+        while (true) {
+            int current = reservedSlots.get();
+            if (current >= max) {
+                return false;
+            }
+            if (reservedSlots.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private static int getMaxSize() {
+        return Math.max(1, ConfigLoader.getPropertyAsInt("web.pool.max.size", 8));
+    }
+
+    private static String getBrowser() {
+        return ConfigLoader.getProperty("web.browser", "chrome").toLowerCase();
+    }
+}
@@ -0,0 +1,175 @@
+package automation.utils.web;
+
+import automation.utils.ConfigLoader;
+import automation.utils.LogUtil;
+import automation.utils.PerfMetrics;
+import org.openqa.selenium.Cookie;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Caches the authenticated browser state (cookies and web storage) per user and environment
+ * so a new or reset session can be logged in without walking through the login form
+ */
+public class WebSessionCache {
+    private static final Map<String, SessionState> sessions = new ConcurrentHashMap<>();
+    private static final Map<String, ReentrantLock> locks = new ConcurrentHashMap<>();
+
+    private static final String READ_STORAGE_SCRIPT =
+            "var read = function (storage) {" +
+            "  var result = {};" +
+            "  for (var i = 0; i < storage.length; i++) { var key = storage.key(i); result[key] = storage.getItem(key); }" +
+            "  return result;" +
+            "};" +
+            "return { local: read(window.localStorage), session: read(window.sessionStorage) };";
+
+    private static final String WRITE_STORAGE_SCRIPT =
+            "var write = function (storage, items) { for (var key in items) { storage.setItem(key, items[key]); } };" +
+            "write(window.localStorage, arguments[0]);" +
+            "write(window.sessionStorage, arguments[1]);";
+
+    private static final String PROBE_SCRIPT = "return document.querySelector(arguments[0]) !== null;";
+
+    /**
+     * Lock guarding the UI login of one user so parallel workers log in only once
+     *
+     * @param user User name
+     * @return Lock shared by all workers for this user and environment
+     */
+    public static ReentrantLock lockFor(String user) {
+        return locks.computeIfAbsent(key(user), k -> new ReentrantLock());
+    }
+
+    /**
+     * Inject the cached state of a user into the driver and verify it with a cheap probe
+     *
+     * @param driver Driver to log in
+     * @param user   User name
+     * @return true if the driver is now logged in, false if there is no valid cached state
+     */
+    public static boolean restore(WebDriver driver, String user) {
+        String key = key(user);
+        SessionState state = sessions.get(key);
+        if (state == null) {
+            return false;
+        }
+        if (state.isExpired()) {
+            LogUtil.info("Cached session for " + user + " has expired");
+            sessions.remove(key, state);
+            return false;
+        }
+
+        long start = System.nanoTime();
+        String baseUrl = ConfigLoader.getProperty("web.url");
+        try {
+            // Cookies and storage can only be set on a document of the same origin
+            driver.get(baseUrl + ConfigLoader.getProperty("web.session.inject.path", "/robots.txt"));
+            Date now = new Date();
+            for (Cookie cookie : state.cookies) {
+                if (cookie.getExpiry() == null || cookie.getExpiry().after(now)) {
+                    driver.manage().addCookie(cookie);
+                }
+            }
+            JavascriptExecutor js = (JavascriptExecutor) driver;
+            js.executeScript(WRITE_STORAGE_SCRIPT, state.localStorage, state.sessionStorage);
+
+            driver.get(baseUrl);
+            Object loggedIn = js.executeScript(PROBE_SCRIPT,
+                    ConfigLoader.getProperty("web.session.probe.selector", "#profileDropdown"));
+            if (!Boolean.TRUE.equals(loggedIn)) {
+                LogUtil.info("Cached session for " + user + " was rejected by the server");
+                sessions.remove(key, state);
+                return false;
+            }
+        } catch (Exception e) {
+            LogUtil.warn("Failed to restore cached session for " + user + ": " + e.getMessage());
+            sessions.remove(key, state);
+            return false;
+        }
+
+        long restoreMillis = PerfMetrics.elapsedMillis(start);
+        PerfMetrics.record("web.session.restore.ms", restoreMillis);
+        LogUtil.info("Restored cached session for " + user + " in " + restoreMillis + " ms");
+        return true;
+    }
+
+    /**
+     * Capture the authenticated state of a driver that has just logged in
+     *
+     * @param driver Logged in driver
+     * @param user   User name
+     */
+    @SuppressWarnings("unchecked")
+    public static void store(WebDriver driver, String user) {
+        try {
+            Set<Cookie> cookies = driver.manage().getCookies();
+            Map<String, Object> storage = (Map<String, Object>) ((JavascriptExecutor) driver).executeScript(READ_STORAGE_SCRIPT);
+            long ttlMillis = TimeUnit.MINUTES.toMillis(ConfigLoader.getPropertyAsInt("web.session.cache.ttl.minutes", 30));
+            sessions.put(key(user), new SessionState(cookies,
+                    (Map<String, Object>) storage.get("local"),
+                    (Map<String, Object>) storage.get("session"),
+                    System.currentTimeMillis() + ttlMillis));
+            LogUtil.info("Cached authenticated session for " + user + " (" + cookies.size() + " cookies)");
+        } catch (Exception e) {
+            LogUtil.warn("Failed to cache session for " + user + ": " + e.getMessage());
+        }
+    }
+
+    public static void invalidate(String user) {
+        sessions.remove(key(user));
+    }
+
+    private static String key(String user) {
+        return user + "@" + ConfigLoader.getProperty("web.url");
+    }
+
+    private static class SessionState {
+        private final Set<Cookie> cookies;
+        private final Map<String, Object> localStorage;
+        private final Map<String, Object> sessionStorage;
+        private final long expiresAt;
+
+        private SessionState(Set<Cookie> cookies, Map<String, Object> localStorage,
+                             Map<String, Object> sessionStorage, long expiresAt) {
+            this.cookies = cookies;
+            this.localStorage = localStorage != null ? localStorage : new HashMap<>();
+            this.sessionStorage = sessionStorage != null ? sessionStorage : new HashMap<>();
+            this.expiresAt = expiresAt;
+        }
+
+        /**
+         * Past the cache TTL or an auth cookie (web.session.auth.cookies) has expired, other cookies such as
+         * short-lived analytics ones are simply not injected once expired
+         */
+        private boolean isExpired() {
+            Date now = new Date();
+            if (now.getTime() > expiresAt) {
+                return true;
+            }
+            for (Cookie cookie : cookies) {
+                if (isAuthCookie(cookie.getName()) && cookie.getExpiry() != null && cookie.getExpiry().before(now)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static boolean isAuthCookie(String name) {
+            String lowerName = name.toLowerCase();
+            for (String part : ConfigLoader.getProperty("web.session.auth.cookies", "session,auth,token").split(",")) {
+                if (!part.trim().isEmpty() && lowerName.contains(part.trim().toLowerCase())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package automation.utils.web;
+
+import automation.utils.ConfigLoader;
+import automation.utils.LogUtil;
+import automation.utils.PerfMetrics;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.devtools.Command;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.Event;
+import org.openqa.selenium.devtools.HasDevTools;
+import org.openqa.selenium.json.Json;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Brings a used browser session back to a clean state without relaunching the browser
+ */
+public class WebSessionReset {
+    // Origins each Chromium session navigated to (top level and frames) since its last reset
+    private static final Map<WebDriver, Set<String>> visitedOrigins = new ConcurrentHashMap<>();
+    private static final String CDP_STORAGE_TYPES = "local_storage,indexeddb,websql,service_workers,cache_storage,file_systems";
+
+    private static final String CLEAR_STORAGE_SCRIPT =
+            "var done = arguments[arguments.length - 1];" +
+            "var tasks = [];" +
+            "try { window.localStorage.clear(); } catch (e) {}" +
+            "try { window.sessionStorage.clear(); } catch (e) {}" +
+            "try {" +
+            "  if (window.indexedDB && indexedDB.databases) {" +
+            "    tasks.push(indexedDB.databases().then(function (dbs) {" +
+            "      return Promise.all(dbs.map(function (db) {" +
+            "        return new Promise(function (resolve) {" +
+            "          var request = indexedDB.deleteDatabase(db.name);" +
+            "          request.onsuccess = request.onerror = request.onblocked = function () { resolve(); };" +
+            "        });" +
+            "      }));" +
+            "    }));" +
+            "  }" +
+            "} catch (e) {}" +
+            "try {" +
+            "  if (navigator.serviceWorker && navigator.serviceWorker.getRegistrations) {" +
+            "    tasks.push(navigator.serviceWorker.getRegistrations().then(function (regs) {" +
+            "      return Promise.all(regs.map(function (reg) { return reg.unregister(); }));" +
+            "    }));" +
+            "  }" +
+            "} catch (e) {}" +
+            "try {" +
+            "  if (window.caches && caches.keys) {" +
+            "    tasks.push(caches.keys().then(function (keys) {" +
+            "      return Promise.all(keys.map(function (key) { return caches.delete(key); }));" +
+            "    }));" +
+            "  }" +
+            "} catch (e) {}" +
+            "Promise.all(tasks).then(function () { done(true); }, function () { done(false); });";
+
+    private static final String USED_HEAP_SCRIPT =
+            "return window.performance && performance.memory ? performance.memory.usedJSHeapSize : -1;";
+
+    /**
+     * Start recording the origins a freshly created Chromium session visits, so a reset can clear all of them
+     *
+     * @param driver Driver to track
+     */
+    public static void track(WebDriver driver) {
+        if (!(driver instanceof HasDevTools) || "none".equals(getMode())) {
+            return;
+        }
+        try {
+            Set<String> origins = ConcurrentHashMap.newKeySet();
+            DevTools devTools = ((HasDevTools) driver).getDevTools();
+            devTools.createSessionIfThereIsNotOne();
+            devTools.addListener(new Event<Map<String, Object>>("Page.frameNavigated", input -> input.read(Json.MAP_TYPE)),
+                    params -> {
+                        Object frame = params.get("frame");
+                        Object origin = frame instanceof Map ? ((Map<?, ?>) frame).get("securityOrigin") : null;
+                        if (origin instanceof String && ((String) origin).startsWith("http")) {
+                            origins.add((String) origin);
+                        }
+                    });
+            devTools.send(new Command<Void>("Page.enable", Map.of()));
+            visitedOrigins.put(driver, origins);
+        } catch (Exception e) {
+            LogUtil.warn("Could not track visited origins, reset will clear the current origin only: " + e.getMessage());
+        }
+    }
+
+    public static void detach(WebDriver driver) {
+        visitedOrigins.remove(driver);
+    }
+
+    public static String getMode() {
+        return ConfigLoader.getProperty("web.session.reset.mode", "reset").toLowerCase();
+    }
+
+    /**
+     * Decide whether a session has served enough tests, or grown too large, to be relaunched instead of reset
+     *
+     * @param driver   Driver to check
+     * @param useCount Number of tests the driver has served so far
+     * @return true if the browser should be quit and replaced
+     */
+    public static boolean shouldRecycle(WebDriver driver, int useCount) {
+        int maxTests = ConfigLoader.getPropertyAsInt("web.session.recycle.after.tests", 25);
+        if (maxTests > 0 && useCount >= maxTests) {
+            LogUtil.info("Recycling browser after " + useCount + " tests");
+            return true;
+        }
+
+        int maxHeapMb = ConfigLoader.getPropertyAsInt("web.session.recycle.memory.mb", 512);
+        if (maxHeapMb > 0 && driver instanceof JavascriptExecutor) {
+            try {
+                Object usedHeap = ((JavascriptExecutor) driver).executeScript(USED_HEAP_SCRIPT);
+                if (usedHeap instanceof Number && ((Number) usedHeap).longValue() > maxHeapMb * 1024L * 1024L) {
+                    LogUtil.info("Recycling browser, JS heap " + ((Number) usedHeap).longValue() / (1024 * 1024)
+                            + " MB exceeds " + maxHeapMb + " MB");
+                    return true;
+                }
+            } catch (Exception e) {
+                LogUtil.debug("Could not read JS heap size: " + e.getMessage());
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Clear cookies, web storage, IndexedDB and service workers, close extra windows and park the session on about:blank.
+     * On Chromium the storage and sessionStorage of every origin visited since the last reset are cleared through CDP,
+     * on every browser the storage of the origin loaded at reset time is also cleared in the page.
+     *
+     * @param driver Driver to reset
+     * @return true if the session is clean and can be reused
+     */
+    public static boolean reset(WebDriver driver) {
+        long start = System.nanoTime();
+        try {
+            closeExtraWindows(driver);
+            clearOriginStorage(driver);
+            clearCookies(driver);
+            driver.get("about:blank");
+
+            long resetMillis = PerfMetrics.elapsedMillis(start);
+            PerfMetrics.record("web.session.reset.ms", resetMillis);
+            LogUtil.info("Browser session reset in " + resetMillis + " ms");
+            return true;
+        } catch (Exception e) {
+            LogUtil.warn("Browser session reset failed, the session will be relaunched: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private static void closeExtraWindows(WebDriver driver) {
+        Set<String> handles = driver.getWindowHandles();
+        if (handles.size() <= 1) {
+            return;
+        }
+        String keep = handles.iterator().next();
+        for (String handle : handles) {
+            if (!handle.equals(keep)) {
+                driver.switchTo().window(handle);
+                driver.close();
+            }
+        }
+        driver.switchTo().window(keep);
+    }
+
+    private static void clearOriginStorage(WebDriver driver) {
+        Set<String> origins = visitedOrigins.get(driver);
+        if (origins != null) {
+            DevTools devTools = ((HasDevTools) driver).getDevTools();
+            for (String origin : Set.copyOf(origins)) {
+                devTools.send(new Command<Void>("Storage.clearDataForOrigin",
+                        Map.of("origin", origin, "storageTypes", CDP_STORAGE_TYPES)));
+                clearSessionStorage(devTools, origin);
+                origins.remove(origin);
+            }
+        }
+        // The kept tab's sessionStorage is not covered by Storage.clearDataForOrigin
+        String url = driver.getCurrentUrl();
+        if (url == null || !url.startsWith("http")) {
+            return;
+        }
+        ((JavascriptExecutor) driver).executeAsyncScript(CLEAR_STORAGE_SCRIPT);
+    }
+
+    private static void clearSessionStorage(DevTools devTools, String origin) {
+        try {
+            devTools.send(new Command<Void>("DOMStorage.clear",
+                    Map.of("storageId", Map.of("securityOrigin", origin, "isLocalStorage", false))));
+        } catch (Exception e) {
+            // No session storage area for this origin in the kept tab
+            LogUtil.debug("Could not clear sessionStorage of " + origin + ": " + e.getMessage());
+        }
+    }
+
+    private static void clearCookies(WebDriver driver) {
+        if (driver instanceof HasDevTools) {
+            // WebDriver only deletes cookies of the current domain, CDP clears every domain at once
+            DevTools devTools = ((HasDevTools) driver).getDevTools();
+            devTools.createSessionIfThereIsNotOne();
+            devTools.send(new Command<Void>("Network.clearBrowserCookies", Map.of()));
+        } else {
+            driver.manage().deleteAllCookies();
+        }
+    }
+}
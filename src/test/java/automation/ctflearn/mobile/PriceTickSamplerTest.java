@@ -0,0 +1,149 @@
+package automation.ctflearn.mobile;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.appium.java_client.android.AndroidDriver;
+import io.appium.java_client.android.options.UiAutomator2Options;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs {@link PriceTickSampler} against a local mock Appium endpoint serving a Trade screen whose EUR/USD quote changes
+ * on every page source call, GBP/USD on every third and XAU/USD never
+ */
+public class PriceTickSamplerTest {
+    private static final String SESSION_ID = "mock-session";
+
+    private final AtomicInteger sourceRequests = new AtomicInteger();
+    private HttpServer server;
+    private AndroidDriver driver;
+    // The sampler emits key metrics, keep them out of the duration history of real runs
+    private final List<String> emitted = new CopyOnWriteArrayList<>();
+
+    @BeforeClass
+    public void startMockAppium() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", this::handle);
+        server.start();
+
+        UiAutomator2Options options = new UiAutomator2Options().setDeviceName("mock");
+        driver = new AndroidDriver(new URL("http://127.0.0.1:" + server.getAddress().getPort()), options);
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void stopMockAppium() {
+        if (driver != null) {
+            driver.quit();
+        }
+        if (server != null) {
+            server.stop(0);
+        }
+    }
+
+    private PriceTickSampler sampler(String... instruments) {
+        return new TradeScreen(driver).priceTickSampler(instruments)
+                .emitTo((eventName, startEpoch, durationMillis, success, details) -> emitted.add(eventName));
+    }
+
+    @Test
+    public void measuresUpdateIntervalsAndStaleness() {
+        sourceRequests.set(0);
+        emitted.clear();
+        PriceTickSampler.Result result = sampler("EUR/USD", "GBP/USD", "XAU/USD")
+                .sample(Duration.ofMillis(1500), Duration.ofMillis(50));
+
+        Assert.assertTrue(result.getSamples() >= 10, "samples: " + result.getSamples());
+        Assert.assertEquals(sourceRequests.get(), result.getSamples(), "one page source call per sample");
+
+        PriceTickSampler.Stats eurUsd = result.get("EUR/USD");
+        Assert.assertEquals(eurUsd.getUpdates(), result.getSamples() - 1);
+        Assert.assertTrue(eurUsd.getIntervalPercentile(90) < 500, eurUsd.toString());
+
+        PriceTickSampler.Stats gbpUsd = result.get("GBP/USD");
+        Assert.assertTrue(gbpUsd.getUpdates() >= result.getSamples() / 3 - 1, gbpUsd.toString());
+        Assert.assertTrue(gbpUsd.getIntervalPercentile(50) > eurUsd.getIntervalPercentile(50), gbpUsd.toString());
+
+        PriceTickSampler.Stats xauUsd = result.get("XAU/USD");
+        Assert.assertTrue(xauUsd.isSeen());
+        Assert.assertEquals(xauUsd.getUpdates(), 0);
+        Assert.assertEquals(xauUsd.getIntervalPercentile(50), -1L);
+        Assert.assertTrue(xauUsd.getMaxStaleness() >= 1400, xauUsd.toString());
+        Assert.assertEquals(emitted, List.of("mobile:price-ticks", "mobile:price-ticks", "mobile:price-ticks"),
+                "one key metrics event per instrument");
+    }
+
+    @Test
+    public void assertsOnStaleQuotes() {
+        PriceTickSampler.Result fresh = sampler("EUR/USD")
+                .sample(Duration.ofMillis(500), Duration.ofMillis(50));
+        fresh.assertMaxStaleness(2000);
+        fresh.assertMinUpdates(3);
+
+        PriceTickSampler.Result stale = sampler("EUR/USD", "XAU/USD", "BTC/USD")
+                .sample(Duration.ofMillis(1000), Duration.ofMillis(50));
+        AssertionError error = Assert.expectThrows(AssertionError.class, () -> stale.assertMaxStaleness(400));
+        Assert.assertTrue(error.getMessage().contains("XAU/USD"), error.getMessage());
+        Assert.assertTrue(error.getMessage().contains("BTC/USD (never seen)"), error.getMessage());
+        Assert.assertFalse(error.getMessage().contains("EUR/USD"), error.getMessage());
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String method = exchange.getRequestMethod();
+        String path = exchange.getRequestURI().getPath();
+        exchange.getRequestBody().readAllBytes();
+        String body;
+        if ("POST".equals(method) && path.equals("/session")) {
+            body = "{\"value\":{\"sessionId\":\"" + SESSION_ID + "\",\"capabilities\":"
+                    + "{\"platformName\":\"Android\",\"automationName\":\"UiAutomator2\",\"deviceName\":\"mock\"}}}";
+        } else if ("GET".equals(method) && path.equals("/session/" + SESSION_ID + "/source")) {
+            body = "{\"value\":\"" + tradeScreenSource(sourceRequests.incrementAndGet())
+                    .replace("\\", "\\\\").replace("\"", "\\\"") + "\"}";
+        } else if ("DELETE".equals(method) && path.equals("/session/" + SESSION_ID)) {
+            body = "{\"value\":null}";
+        } else {
+            body = "{\"value\":{\"error\":\"unknown command\",\"message\":\"" + method + " " + path + "\",\"stacktrace\":\"\"}}";
+            respond(exchange, 404, body);
+            return;
+        }
+        respond(exchange, 200, body);
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(bytes);
+        }
+    }
+
+    private static String tradeScreenSource(int request) {
+        return "<?xml version='1.0' encoding='UTF-8'?><hierarchy rotation='0'>"
+                + "<androidx.recyclerview.widget.RecyclerView scrollable='true' bounds='[0,200][1080,2200]'>"
+                + row("EUR/USD", String.format("1.%04d", 800 + request), 200)
+                + row("GBP/USD", String.format("1.%04d", 2500 + request / 3), 400)
+                + row("XAU/USD", "2345.10", 600)
+                + "</androidx.recyclerview.widget.RecyclerView></hierarchy>";
+    }
+
+    private static String row(String name, String price, int top) {
+        String id = "com.exness.android.pa:id/";
+        return "<android.view.ViewGroup resource-id='" + id + "instrumentView' bounds='[0," + top + "][1080," + (top + 200) + "]'>"
+                + "<android.widget.TextView resource-id='" + id + "nameView' text='" + name + "'/>"
+                + "<android.widget.TextView resource-id='" + id + "priceView' text='" + price + "'/>"
+                + "<android.widget.TextView resource-id='" + id + "percentView' text='+0.10%'/>"
+                + "</android.view.ViewGroup>";
+    }
+}
@@ -13,19 +13,19 @@ public class TradingAppPortfolioTest extends TestBase {
     @Test
     public void tradingAppE2ETest() {
         LogUtil.startStep("Initialize LoginScreen for Exness trading app");
-        loginScreen = new LoginScreen(appiumDriver);
+        loginScreen = new LoginScreen(getAppiumDriver());
 
         LogUtil.startStep("Click on Sign In button");
         loginScreen.clickSignIn();
 
         LogUtil.startStep("Login with valid credentials");
-        loginScreen.login(email, password);
+        loginScreen.login(getEmail(), getPassword());
 
         LogUtil.startStep("Enter passcode");
-        loginScreen.enterPasscode(passcode);
+        loginScreen.enterPasscode(getPasscode());
 
         LogUtil.startStep("Re-enter passcode for confirmation");
-        loginScreen.reEnterPasscode(passcode);
+        loginScreen.reEnterPasscode(getPasscode());
 
         LogUtil.startStep("Navigate to Trade screen and validate investment data");
         TradeScreen tradeScreen = loginScreen.navigateToTrade();
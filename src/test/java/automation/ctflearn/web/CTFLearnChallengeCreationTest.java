@@ -15,8 +15,7 @@ public class CTFLearnChallengeCreationTest extends TestBase {
     @Test(description = "Web UI E2E Test Flow for Challenge Creation")
     public void testChallengeCreation() {
         LogUtil.startStep("Login to CTFLearn");
-        LoginPage loginPage = LoginPage.navigateToLoginPage(driver);
-        HomePage homePage = loginPage.login(webUsername, webPassword);
+        HomePage homePage = LoginPage.loginWithCachedSession(getDriver(), getWebUsername(), getWebPassword());
 
         LogUtil.startStep(" Navigate to Challenges page and click create challenge");
         ChallengesPage challengesPage = homePage.navigateToChallengesPage();
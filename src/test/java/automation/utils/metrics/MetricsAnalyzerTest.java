@@ -0,0 +1,121 @@
+package automation.utils.metrics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Checks the Welch's t-test against Student's t table values and the streaming aggregation of a small metrics file
+ */
+public class MetricsAnalyzerTest {
+
+    /**
+     * With equal sample sizes n and variances v the Welch statistic is (mean1 - mean2) / sqrt(2v/n) on 2(n-1) degrees
+     * of freedom, so a mean difference of t * sqrt(2) with v = n reproduces a table value of t
+     */
+    private static double pValueFor(double t, int n) {
+        return MetricsAnalyzer.welchOneSidedPValue(t * Math.sqrt(2), n, n, 0, n, n);
+    }
+
+    @Test
+    public void welchPValueMatchesStudentTable() {
+        Assert.assertEquals(pValueFor(2.1318468, 3), 0.05, 1e-6, "t(0.95, df=4)");
+        Assert.assertEquals(pValueFor(2.2281389, 6), 0.025, 1e-6, "t(0.975, df=10)");
+        Assert.assertEquals(pValueFor(1.6463788, 501), 0.05, 1e-6, "t(0.95, df=1000)");
+        // df = 2 has the closed form P(T > t) = 1/2 - t / (2 sqrt(t^2 + 2))
+        Assert.assertEquals(pValueFor(2, 2), 0.5 - 2 / (2 * Math.sqrt(6)), 1e-9, "df=2");
+    }
+
+    @Test
+    public void welchPValueIsOneSided() {
+        Assert.assertEquals(pValueFor(0, 6), 0.5, 1e-9);
+        Assert.assertEquals(pValueFor(-2.2281389, 6), 0.975, 1e-6);
+        Assert.assertEquals(MetricsAnalyzer.welchOneSidedPValue(12, 0, 10, 10, 0, 10), 0.0);
+        Assert.assertEquals(MetricsAnalyzer.welchOneSidedPValue(10, 0, 10, 12, 0, 10), 1.0);
+    }
+
+    @Test
+    public void incompleteBetaMatchesClosedForms() {
+        Assert.assertEquals(MetricsAnalyzer.regularizedIncompleteBeta(0.3, 1, 1), 0.3, 1e-12);
+        Assert.assertEquals(MetricsAnalyzer.regularizedIncompleteBeta(0.5, 3, 1), 0.125, 1e-12);
+        // I_x(2, 3) = P(Binomial(4, x) >= 2)
+        Assert.assertEquals(MetricsAnalyzer.regularizedIncompleteBeta(0.4, 2, 3), 0.5248, 1e-12);
+        Assert.assertEquals(MetricsAnalyzer.regularizedIncompleteBeta(0, 2, 3), 0.0);
+        Assert.assertEquals(MetricsAnalyzer.regularizedIncompleteBeta(1, 2, 3), 1.0);
+    }
+
+    @Test
+    public void samplesKeepExactMomentsAndPercentilesWithinOnePercent() {
+        MetricsAnalyzer.Samples samples = new MetricsAnalyzer.Samples();
+        for (int i = 1; i <= 1000; i++) {
+            samples.add(i, false);
+        }
+        Assert.assertEquals(samples.mean(), 500.5, 1e-9);
+        Assert.assertEquals(samples.variance(), 83416.6667, 1e-3);
+        Assert.assertEquals(samples.percentile(50), 500, 5);
+        Assert.assertEquals(samples.percentile(90), 900, 9);
+        Assert.assertEquals(samples.percentile(100), 1000.0);
+    }
+
+    @Test
+    public void flagsSignificantSlowdownsAgainstBaseline() throws IOException {
+        File baselineFile = metricsFile(100, 10, 1);
+        File currentFile = metricsFile(150, 10, 1);
+        try {
+            MetricsAnalyzer baseline = new MetricsAnalyzer();
+            baseline.read(baselineFile);
+            ObjectNode baselineSummary = baseline.summarize(baselineFile.getPath());
+
+            MetricsAnalyzer current = new MetricsAnalyzer();
+            current.read(currentFile);
+            List<ObjectNode> regressions = current.compare(baselineSummary, 0.05, 0.10, 5);
+            List<String> keys = new ArrayList<>();
+            regressions.forEach(regression -> keys.add(regression.get("dimension").asText() + "=" + regression.get("key").asText()));
+            Assert.assertTrue(keys.contains("eventName=command:findElement"), keys.toString());
+            Assert.assertTrue(keys.contains("worker=1"), keys.toString());
+            Assert.assertFalse(keys.contains("worker=-1"), "background events have no worker group: " + keys);
+
+            MetricsAnalyzer same = new MetricsAnalyzer();
+            same.read(baselineFile);
+            Assert.assertTrue(same.compare(baselineSummary, 0.05, 0.10, 5).isEmpty());
+        } finally {
+            baselineFile.delete();
+            currentFile.delete();
+        }
+    }
+
+    /**
+     * JSON lines with 20 findElement commands around the given mean on worker 1 and one background event
+     */
+    private static File metricsFile(double mean, double spread, int worker) throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            ObjectNode event = mapper.createObjectNode();
+            event.put("duration", mean + (i % 2 == 0 ? spread : -spread));
+            event.put("eventName", "command:findElement");
+            event.put("startTime", 1_700_000_000_000L + i * 1000L);
+            event.put("success", true);
+            event.put("worker", worker);
+            event.put("testName", "login");
+            lines.add(mapper.writeValueAsString(event));
+        }
+        ObjectNode background = mapper.createObjectNode();
+        background.put("duration", 5000);
+        background.put("eventName", "command:newSession");
+        background.put("worker", KeyMetrics.BACKGROUND_WORKER);
+        lines.add(mapper.writeValueAsString(background));
+
+        File file = File.createTempFile("key-metrics", ".jsonl");
+        Files.write(file.toPath(), lines, StandardCharsets.UTF_8);
+        return file;
+    }
+}
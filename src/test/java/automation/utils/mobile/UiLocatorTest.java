@@ -0,0 +1,163 @@
+package automation.utils.mobile;
+
+import automation.ctflearn.mobile.LoginScreen;
+import automation.ctflearn.mobile.TradeScreen;
+import automation.utils.PathManager;
+import io.appium.java_client.pagefactory.AndroidFindBy;
+import org.openqa.selenium.WebElement;
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Replays locators against the hierarchy dumps in testdata/hierarchy: the UiSelector and id rewrites of the mobile
+ * screens must select the same nodes as the XPath locators they replaced, and suggestions must be exact equivalents
+ */
+public class UiLocatorTest {
+    private UiHierarchy login;
+    private UiHierarchy passcode;
+    private UiHierarchy trade;
+
+    private static File dump(String name) {
+        return new File(PathManager.getTestDataFilePath("hierarchy", name));
+    }
+
+    private static String[] locatorOf(Class<?> pageClass, String field) throws NoSuchFieldException {
+        return UiLocator.of(pageClass.getDeclaredField(field).getAnnotation(AndroidFindBy.class));
+    }
+
+    @BeforeClass
+    public void parseDumps() {
+        login = UiHierarchy.parse(dump("login.xml"));
+        passcode = UiHierarchy.parse(dump("passcode.xml"));
+        trade = UiHierarchy.parse(dump("trade.xml"));
+    }
+
+    @DataProvider
+    public Object[][] rewrittenLocators() {
+        return new Object[][]{
+                {LoginScreen.class, "emailInput", "login", "(//*[@resource-id='com.exness.android.pa:id/editText'])[1]"},
+                {LoginScreen.class, "passwordInput", "login", "(//*[@resource-id='com.exness.android.pa:id/editText'])[2]"},
+                {LoginScreen.class, "notNowButton", "passcode", "//*[@text='Not now']"},
+                {LoginScreen.class, "tradeNavButton", "trade",
+                        "//*[@resource-id='com.exness.android.pa:id/bottom_navigation_item_title' and @text='Trade']"},
+                {LoginScreen.class, "profileNavButton", "trade",
+                        "//*[@resource-id='com.exness.android.pa:id/bottom_navigation_item_title' and @text='Profile']"},
+                {TradeScreen.class, "instrumentList", "trade", "//*[@resource-id='com.exness.android.pa:id/instrumentView']"},
+        };
+    }
+
+    @Test(dataProvider = "rewrittenLocators")
+    public void rewriteMatchesReplacedXPath(Class<?> pageClass, String field, String screen, String replacedXPath)
+            throws NoSuchFieldException {
+        UiHierarchy hierarchy = "login".equals(screen) ? login : "passcode".equals(screen) ? passcode : trade;
+        String[] locator = locatorOf(pageClass, field);
+
+        List<UiHierarchy.Node> expected = UiLocator.find(hierarchy, "xpath", replacedXPath);
+        Assert.assertFalse(expected.isEmpty(), "the dump must contain the node " + field + " targets");
+        Assert.assertNotEquals(locator[0], "xpath", field + " should no longer use XPath");
+        Assert.assertEquals(UiLocator.find(hierarchy, locator[0], locator[1]), expected, field);
+    }
+
+    @Test
+    public void idWithoutPackageMatchesAppIds() {
+        Assert.assertEquals(UiLocator.find(trade, "id", "priceView"),
+                UiLocator.find(trade, "id", "com.exness.android.pa:id/priceView"));
+        Assert.assertEquals(UiLocator.find(trade, "id", "priceView").size(), 3);
+        Assert.assertTrue(UiLocator.find(trade, "id", "View").isEmpty(), "suffix of an id is not the id");
+    }
+
+    @Test
+    public void accessibilityMatchesContentDescription() {
+        List<UiHierarchy.Node> nodes = UiLocator.find(trade, "accessibility", "Profile");
+        Assert.assertEquals(nodes.size(), 1);
+        Assert.assertEquals(nodes.get(0).resourceId(), "com.exness.android.pa:id/bottom_navigation_item");
+    }
+
+    @Test
+    public void selectorConditionsAreCombined() {
+        Assert.assertEquals(UiLocator.find(trade, "uiAutomator", "new UiSelector().text(\"Trade\")").size(), 2);
+        Assert.assertEquals(UiLocator.find(trade, "uiAutomator",
+                "new UiSelector().className(\"android.widget.TextView\").textStartsWith(\"XAU\")").size(), 1);
+        Assert.assertEquals(UiLocator.find(trade, "uiAutomator",
+                "new UiSelector().resourceIdMatches(\".*:id/bottom_navigation_item\").selected(true)").get(0)
+                .attribute("content-desc"), "Trade");
+        Assert.assertEquals(UiLocator.find(passcode, "uiAutomator",
+                "new UiSelector().resourceId(\"com.exness.android.pa:id/keyboardButton\").clickable(true)").size(), 10);
+    }
+
+    @Test
+    public void selectorInstanceCountsMatchesInDocumentOrder() {
+        String selector = "new UiSelector().resourceId(\"com.exness.android.pa:id/symbolView\").instance(%d)";
+        Assert.assertEquals(UiLocator.find(trade, "uiAutomator", String.format(selector, 1)).get(0).text(), "EURUSD");
+        Assert.assertTrue(UiLocator.find(trade, "uiAutomator", String.format(selector, 3)).isEmpty());
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void unsupportedSelectorMethodIsRejected() {
+        UiLocator.find(trade, "uiAutomator", "new UiSelector().checkable(true)");
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void unparsableSelectorIsRejected() {
+        UiLocator.find(trade, "uiAutomator", "new UiSelector().text(\"Trade\").childSelector(new UiSelector())");
+    }
+
+    @Test
+    public void literalQuotesBothQuoteTypes() {
+        Assert.assertEquals(UiLocator.literal("Trade"), "'Trade'");
+        Assert.assertEquals(UiLocator.literal("Don't"), "\"Don't\"");
+        Assert.assertEquals(UiLocator.literal("a'b\"c"), "concat('a', \"'\", 'b\"c')");
+    }
+
+    @Test
+    public void suggestionsSelectExactlyTheXPathNodes() {
+        LocatorOptimizer optimizer = new LocatorOptimizer();
+        optimizer.load(dump("login.xml"));
+        optimizer.load(dump("trade.xml"));
+        optimizer.analyze(SuggestionPage.class);
+        List<String> report = Arrays.asList(optimizer.report().split("\n"));
+
+        // The id alone also matches the other tab titles, so the text has to stay in the selector
+        assertReportLine(report, "tradeTab", "@AndroidFindBy(uiAutomator = \"new UiSelector()"
+                + ".resourceId(\\\"com.exness.android.pa:id/bottom_navigation_item_title\\\").text(\\\"Trade\\\")\")");
+        assertReportLine(report, "password", "@AndroidFindBy(uiAutomator = \"new UiSelector()"
+                + ".resourceId(\\\"com.exness.android.pa:id/editText\\\").instance(1)\")");
+        assertReportLine(report, "instruments", "@AndroidFindBy(id = \"com.exness.android.pa:id/instrumentView\")");
+        assertReportLine(report, "root", "keep (no equivalent)");
+        assertReportLine(report, "prices", "native lookup");
+        assertReportLine(report, "missing", "no match in any dump");
+    }
+
+    private static void assertReportLine(List<String> report, String field, String expected) {
+        String line = report.stream().filter(l -> l.startsWith("SuggestionPage." + field + " ")).findFirst()
+                .orElseThrow(() -> new AssertionError("No report line for " + field + " in " + report));
+        Assert.assertTrue(line.contains(expected), line);
+    }
+
+    @SuppressWarnings("unused")
+    private static class SuggestionPage {
+        @AndroidFindBy(xpath = "//*[@resource-id='com.exness.android.pa:id/bottom_navigation_item_title' and @text='Trade']")
+        private WebElement tradeTab;
+
+        @AndroidFindBy(xpath = "(//*[@resource-id='com.exness.android.pa:id/editText'])[2]")
+        private WebElement password;
+
+        @AndroidFindBy(xpath = "//*[@resource-id='com.exness.android.pa:id/instrumentView']")
+        private List<WebElement> instruments;
+
+        @AndroidFindBy(xpath = "/hierarchy/*")
+        private WebElement root;
+
+        @AndroidFindBy(id = "priceView")
+        private List<WebElement> prices;
+
+        @AndroidFindBy(id = "com.exness.android.pa:id/depositButton")
+        private WebElement missing;
+    }
+}
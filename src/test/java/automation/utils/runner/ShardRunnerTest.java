@@ -0,0 +1,152 @@
+package automation.utils.runner;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.w3c.dom.Element;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Checks the longest-processing-time assignment, the duration history, the forwarded system properties and the merge
+ * of shard outputs
+ */
+public class ShardRunnerTest {
+
+    private static List<ShardRunner.WorkItem> items(double... loads) {
+        List<ShardRunner.WorkItem> items = new ArrayList<>();
+        for (double load : loads) {
+            items.add(new ShardRunner.WorkItem(load));
+        }
+        return items;
+    }
+
+    private static File tempDir() throws IOException {
+        File dir = Files.createTempDirectory("shard-runner").toFile();
+        dir.deleteOnExit();
+        return dir;
+    }
+
+    private static void write(File file, String content) throws IOException {
+        file.getParentFile().mkdirs();
+        Files.writeString(file.toPath(), content, StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void assignPlacesLongestItemOnLeastLoadedShard() {
+        List<ShardRunner.Shard> shards = ShardRunner.assign(items(3, 3, 5, 4, 3), 3);
+
+        Assert.assertEquals(shards.size(), 3);
+        // 5 -> shard 0, 4 -> shard 1, 3 -> shard 2, 3 -> shard 2 (3), 3 -> shard 1 (4)
+        Assert.assertEquals(shards.get(0).getLoad(), 5.0);
+        Assert.assertEquals(shards.get(1).getLoad(), 7.0);
+        Assert.assertEquals(shards.get(2).getLoad(), 6.0);
+        Assert.assertEquals(shards.get(1).getItems().get(0).getLoad(), 4.0);
+        Assert.assertEquals(shards.get(1).getItems().get(1).getLoad(), 3.0);
+    }
+
+    @Test
+    public void assignDropsEmptyShards() {
+        List<ShardRunner.Shard> shards = ShardRunner.assign(items(10, 20), 4);
+
+        Assert.assertEquals(shards.size(), 2);
+        Assert.assertEquals(shards.get(0).getIndex(), 0);
+        Assert.assertEquals(shards.get(0).getLoad(), 20.0);
+        Assert.assertEquals(shards.get(1).getIndex(), 1);
+        Assert.assertEquals(shards.get(1).getLoad(), 10.0);
+    }
+
+    @Test
+    public void metricsHistoryKeepsSameNamedMethodsApart() throws IOException {
+        File history = new File(tempDir(), "key-metrics.jsonl");
+        write(history, String.join("\n",
+                "{\"eventName\":\"test:setup\",\"duration\":100,\"testName\":\"login\",\"testClass\":\"web.LoginTest\"}",
+                "{\"eventName\":\"test:body\",\"duration\":900,\"testName\":\"login\",\"testClass\":\"web.LoginTest\"}",
+                "{\"eventName\":\"test:body\",\"duration\":3000,\"testName\":\"login\",\"testClass\":\"mobile.LoginTest\"}",
+                "{\"eventName\":\"test:body\",\"duration\":5000,\"testName\":\"login\",\"testClass\":\"mobile.LoginTest\"}",
+                "{\"eventName\":\"command:findElement\",\"duration\":50,\"testName\":\"login\",\"testClass\":\"web.LoginTest\"}",
+                "{\"eventName\":\"test:body\",\"duration\":700,\"testName\":\"legacy\",\"testClass\":null}",
+                ""));
+
+        Map<String, Double> averages = ShardRunner.readHistory(history);
+
+        Assert.assertEquals(averages.size(), 2);
+        Assert.assertEquals(averages.get(ShardRunner.historyKey("web.LoginTest", "login")), 1000.0);
+        Assert.assertEquals(averages.get(ShardRunner.historyKey("mobile.LoginTest", "login")), 4000.0);
+    }
+
+    @Test
+    public void resultsHistoryKeysOnEnclosingClass() throws IOException {
+        File history = new File(tempDir(), "testng-results.xml");
+        write(history, "<testng-results><suite><test>"
+                + "<class name=\"web.LoginTest\">"
+                + "<test-method name=\"beforeMethod\" is-config=\"true\" duration-ms=\"500\"/>"
+                + "<test-method name=\"login\" duration-ms=\"1200\"/>"
+                + "</class>"
+                + "<class name=\"mobile.LoginTest\">"
+                + "<test-method name=\"login\" duration-ms=\"4000\"/>"
+                + "<test-method name=\"login\" duration-ms=\"6000\"/>"
+                + "</class>"
+                + "</test></suite></testng-results>");
+
+        Map<String, Double> averages = ShardRunner.readHistory(history);
+
+        Assert.assertEquals(averages.size(), 2);
+        Assert.assertEquals(averages.get(ShardRunner.historyKey("web.LoginTest", "login")), 1200.0);
+        Assert.assertEquals(averages.get(ShardRunner.historyKey("mobile.LoginTest", "login")), 5000.0);
+    }
+
+    @Test
+    public void missingHistoryIsEmpty() throws IOException {
+        Assert.assertTrue(ShardRunner.readHistory(new File(tempDir(), "none.jsonl")).isEmpty());
+    }
+
+    @Test
+    public void forwardsConfigPropertiesExceptPerShardOnes() {
+        Properties properties = new Properties();
+        properties.setProperty("env", "qa");
+        properties.setProperty("environment", "prod");
+        properties.setProperty("webdriver.offline", "true");
+        properties.setProperty("typing.mode", "human");
+        properties.setProperty("metrics.enabled", "false");
+        properties.setProperty("metrics.file", "logs/key-metrics.jsonl");
+        properties.setProperty("java.version", "17");
+
+        Assert.assertEquals(ShardRunner.forwardedProperties(properties, "env, metrics.,typing.,webdriver."),
+                List.of("-Denv=qa", "-Dmetrics.enabled=false", "-Dtyping.mode=human", "-Dwebdriver.offline=true"));
+        Assert.assertEquals(ShardRunner.forwardedProperties(properties, "typing."), List.of("-Dtyping.mode=human"));
+    }
+
+    @Test
+    public void mergeSumsCountersAndConcatenatesMetrics() throws Exception {
+        File outDir = tempDir();
+        write(new File(outDir, "shard-0/testng-results.xml"),
+                "<testng-results total=\"3\" passed=\"2\" failed=\"1\" skipped=\"0\"><suite name=\"shard 0\"/></testng-results>");
+        write(new File(outDir, "shard-1/testng-results.xml"),
+                "<testng-results total=\"2\" passed=\"1\" failed=\"0\" skipped=\"1\"><suite name=\"shard 1\"/></testng-results>");
+        write(new File(outDir, "shard-0/key-metrics.jsonl"), "{\"worker\":1}\n");
+        write(new File(outDir, "shard-1/key-metrics.jsonl"), "{\"worker\":101}\n");
+        // Shard 2 crashed before writing anything
+        List<ShardRunner.Shard> shards = List.of(new ShardRunner.Shard(0), new ShardRunner.Shard(1), new ShardRunner.Shard(2));
+
+        ShardRunner.mergeResults(shards, outDir);
+        ShardRunner.mergeMetrics(shards, outDir);
+
+        Element root = DocumentBuilderFactory.newInstance().newDocumentBuilder()
+                .parse(new File(outDir, "testng-results.xml")).getDocumentElement();
+        Assert.assertEquals(root.getAttribute("total"), "5");
+        Assert.assertEquals(root.getAttribute("passed"), "3");
+        Assert.assertEquals(root.getAttribute("failed"), "1");
+        Assert.assertEquals(root.getAttribute("skipped"), "1");
+        Assert.assertEquals(root.getElementsByTagName("suite").getLength(), 2);
+        Assert.assertEquals(Files.readString(new File(outDir, "key-metrics.jsonl").toPath()),
+                "{\"worker\":1}\n{\"worker\":101}\n");
+    }
+}